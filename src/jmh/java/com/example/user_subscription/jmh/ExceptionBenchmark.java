@@ -0,0 +1,93 @@
+package com.example.user_subscription.jmh;
+
+import com.example.user_subscription.exception.ErrorResponse;
+import com.example.user_subscription.exception.exceptions.user.UserConflictException;
+import com.example.user_subscription.exception.exceptions.user.UserIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Throw-and-map cost of the 404/409/400 paths: a stack-capturing exception as the
+ * domain exceptions used to be, the trace-free ones, and a preallocated instance.
+ * {@code depth} approximates the frames between the service and the advice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionBenchmark {
+    @Param({"10", "100"})
+    private int depth;
+
+    private long id = 42;
+
+    @Benchmark
+    public ErrorResponse notFoundWithStackTrace() {
+        try {
+            throwAt(depth, () -> new LegacyException("Пользователь с ID " + id + " не найден"));
+        } catch (LegacyException ex) {
+            return new ErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public ErrorResponse notFound() {
+        try {
+            throwAt(depth, () -> new UserNotFoundException("Пользователь с ID " + id + " не найден"));
+        } catch (UserNotFoundException ex) {
+            return ex.getErrorResponse();
+        }
+        return null;
+    }
+
+    @Benchmark
+    public ErrorResponse conflictWithStackTrace() {
+        try {
+            throwAt(depth, () -> new LegacyException("Email user" + id + "@example.com уже используется"));
+        } catch (LegacyException ex) {
+            return new ErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public ErrorResponse conflict() {
+        try {
+            throwAt(depth, () -> new UserConflictException("Email user" + id + "@example.com уже используется"));
+        } catch (UserConflictException ex) {
+            return ex.getErrorResponse();
+        }
+        return null;
+    }
+
+    @Benchmark
+    public ErrorResponse invalidIdPreallocated() {
+        try {
+            throwAt(depth, () -> UserIllegalArgumentException.INVALID_USER_ID);
+        } catch (UserIllegalArgumentException ex) {
+            return ex.getErrorResponse();
+        }
+        return null;
+    }
+
+    private static void throwAt(int depth, Supplier<? extends RuntimeException> error) {
+        if (depth == 0) {
+            throw error.get();
+        }
+        throwAt(depth - 1, error);
+    }
+
+    /** Shape of the domain exceptions before they dropped stack traces. */
+    private static final class LegacyException extends RuntimeException {
+        LegacyException(String message) {
+            super(message);
+        }
+    }
+}
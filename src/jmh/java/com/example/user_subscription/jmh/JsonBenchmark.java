@@ -0,0 +1,56 @@
+package com.example.user_subscription.jmh;
+
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding and decoding of {@link SubscriptionDto} lists with the same
+ * {@link ObjectMapper} settings Spring Boot applies (ISO dates, not timestamps).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    private static final TypeReference<List<SubscriptionDto>> SUBSCRIPTION_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<SubscriptionDto> subscriptions;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        subscriptions = new ArrayList<>(size);
+        LocalDate today = LocalDate.now();
+        for (long i = 1; i <= size; i++) {
+            subscriptions.add(new SubscriptionDto(i, "Service " + i % 50, today, today.plusMonths(1), i));
+        }
+        json = objectMapper.writeValueAsBytes(subscriptions);
+    }
+
+    @Benchmark
+    public byte[] encode() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(subscriptions);
+    }
+
+    @Benchmark
+    public List<SubscriptionDto> decode() throws Exception {
+        return objectMapper.readValue(json, SUBSCRIPTION_LIST);
+    }
+}
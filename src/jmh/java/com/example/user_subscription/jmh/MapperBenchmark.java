@@ -0,0 +1,62 @@
+package com.example.user_subscription.jmh;
+
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.mapper.SubscriptionMapper;
+import com.example.user_subscription.mapper.SubscriptionMapperImpl;
+import com.example.user_subscription.mapper.UserMapper;
+import com.example.user_subscription.mapper.UserMapperImpl;
+import com.example.user_subscription.model.Subscription;
+import com.example.user_subscription.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mapping of entity lists the size of a large page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private final UserMapper userMapper = new UserMapperImpl();
+    private final SubscriptionMapper subscriptionMapper = new SubscriptionMapperImpl();
+
+    private List<User> users;
+    private List<Subscription> subscriptions;
+
+    @Setup
+    public void setUp() {
+        users = new ArrayList<>(size);
+        subscriptions = new ArrayList<>(size);
+        LocalDate today = LocalDate.now();
+        for (long i = 1; i <= size; i++) {
+            User user = new User(i, "User " + i, "user" + i + "@example.com", new ArrayList<>());
+            users.add(user);
+            subscriptions.add(new Subscription(i, "Service " + i % 50, today, today.plusMonths(1), user));
+        }
+    }
+
+    @Benchmark
+    public List<UserDto> usersToDtoList() {
+        return userMapper.toDtoList(users);
+    }
+
+    @Benchmark
+    public List<SubscriptionDto> subscriptionsToDto() {
+        List<SubscriptionDto> result = new ArrayList<>(subscriptions.size());
+        for (Subscription subscription : subscriptions) {
+            result.add(subscriptionMapper.toDto(subscription));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.user_subscription.jmh;
+
+import com.example.user_subscription.UserSubscriptionServiceApplication;
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.dto.UserPageDto;
+import com.example.user_subscription.mapper.UserMapper;
+import com.example.user_subscription.model.User;
+import com.example.user_subscription.repository.UserRepository;
+import com.example.user_subscription.service.SubscriptionService;
+import com.example.user_subscription.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service read paths against the full Spring context on an in-memory H2 database in
+ * PostgreSQL mode. The user cache is off so every call reaches the database. The
+ * {@code *Hydrated} repository reads load managed entities and map them, as the services
+ * did before the projection queries; compare their {@code gc.alloc.rate.norm} with the
+ * {@code *Projected} counterparts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final int USERS = 10_000;
+    private static final int SUBSCRIPTIONS_PER_USER = 5;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private SubscriptionService subscriptionService;
+    private UserRepository userRepository;
+    private UserMapper userMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+
+    private long nextUserId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserSubscriptionServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:jmh;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.flyway.enabled=false",
+                        "--subscription.partitions.enabled=false",
+                        "--subscription.analytics.backfill-on-startup=false",
+                        "--user.cache.enabled=false",
+                        "--subscription.expiry.enabled=false",
+                        "--subscription.popularity.reconcile-interval-ms=3600000",
+                        "--subscription.popularity.seed-on-startup=false",
+                        "--subscription.events.enabled=false",
+                        "--logging.level.root=WARN");
+        userService = context.getBean(UserService.class);
+        subscriptionService = context.getBean(SubscriptionService.class);
+        userRepository = context.getBean(UserRepository.class);
+        userMapper = context.getBean(UserMapper.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserPageDto getAllUsers(PageCursor pageCursor) {
+        UserPageDto page = userService.getAllUsers(pageCursor.cursor, pageCursor.pageSize);
+        pageCursor.cursor = page.getNext();
+        return page;
+    }
+
+    @Benchmark
+    public List<UserDto> findUserPageProjected(PageCursor pageCursor) {
+        List<UserDto> users = userRepository.findDtoPage(pageCursor.nextCursor(), Limit.of(pageCursor.pageSize));
+        pageCursor.advance(users.isEmpty() ? null : users.get(users.size() - 1).getId());
+        return users;
+    }
+
+    @Benchmark
+    public List<UserDto> findUserPageHydrated(PageCursor pageCursor) {
+        List<User> users = readOnlyTransaction.execute(status -> entityManager
+                .createQuery("SELECT u FROM User u WHERE u.id > :cursor ORDER BY u.id", User.class)
+                .setParameter("cursor", pageCursor.nextCursor())
+                .setMaxResults(pageCursor.pageSize)
+                .getResultList());
+        pageCursor.advance(users.isEmpty() ? null : users.get(users.size() - 1).getId());
+        return userMapper.toDtoList(users);
+    }
+
+    @Benchmark
+    public UserDto findUserProjected() {
+        nextUserId = nextUserId % USERS + 1;
+        return userRepository.findDtoById(nextUserId).orElseThrow();
+    }
+
+    @Benchmark
+    public UserDto findUserHydrated() {
+        nextUserId = nextUserId % USERS + 1;
+        return userMapper.toDto(userRepository.findById(nextUserId).orElseThrow());
+    }
+
+    @Benchmark
+    public List<SubscriptionDto> getUserSubscriptions() {
+        nextUserId = nextUserId % USERS + 1;
+        return subscriptionService.getUserSubscriptions(nextUserId);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> users = new ArrayList<>(USERS);
+        List<Object[]> subscriptions = new ArrayList<>(USERS * SUBSCRIPTIONS_PER_USER);
+        Date today = Date.valueOf(LocalDate.now());
+        long subscriptionId = 1;
+        for (long userId = 1; userId <= USERS; userId++) {
+            users.add(new Object[]{userId, "User " + userId, "user" + userId + "@example.com"});
+            for (int service = 0; service < SUBSCRIPTIONS_PER_USER; service++) {
+                subscriptions.add(new Object[]{subscriptionId++, "Service " + service, today, userId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO subscriptions (id, service_name, start_date, user_id) VALUES (?, ?, ?, ?)", subscriptions);
+    }
+
+    @State(Scope.Thread)
+    public static class PageCursor {
+        @Param({"100", "1000"})
+        private int pageSize;
+
+        private Long cursor;
+
+        private long nextCursor() {
+            return cursor == null ? 0L : cursor;
+        }
+
+        private void advance(Long lastId) {
+            cursor = lastId;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.user_subscription.jmh;
+
+import com.example.user_subscription.metrics.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs with {@code mvn -Pjmh test}: starts the benchmark context and calls the
+ * single-user benchmarks once, so a broken setup fails before a long JMH run does.
+ */
+class ServiceBenchmarkSmokeTest {
+
+    @Test
+    void setUp_ShouldStartContextAndServeBenchmarkCalls() {
+        ServiceBenchmark benchmark = new ServiceBenchmark();
+        benchmark.setUp();
+        try {
+            long statementsBefore = SqlStatementCounter.current();
+            assertEquals(1L, benchmark.findUserProjected().getId());
+            assertEquals(1, SqlStatementCounter.current() - statementsBefore);
+            assertEquals(2L, benchmark.findUserHydrated().getId());
+            assertEquals(5, benchmark.getUserSubscriptions().size());
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+}
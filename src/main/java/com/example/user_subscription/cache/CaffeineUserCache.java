@@ -0,0 +1,152 @@
+package com.example.user_subscription.cache;
+
+import com.example.user_subscription.config.UserCacheProperties;
+import com.example.user_subscription.dto.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of users backed by Caffeine, plus a short-lived negative cache
+ * of ids that were not found. Eviction is repeated after commit.
+ * <p>
+ * The loader runs outside Caffeine's compute so that a database call never holds a
+ * map bin lock, which would pin the carrier thread when running on virtual threads.
+ * Instead every eviction bumps a generation counter of the id's stripe, and a loaded
+ * value is stored only if the generation it was loaded under is still current. The
+ * check and the store happen atomically in a compute, so a reader that loaded the row
+ * before a writer evicted it can never put the old row back.
+ * <p>
+ * With read replicas a reader may still load a row from a replica that has not
+ * replayed the commit yet, so the eviction is repeated once more after the replicas'
+ * maximum lag.
+ */
+public class CaffeineUserCache implements UserCache {
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final Cache<Long, UserDto> users;
+    private final Cache<Long, Boolean> missingUsers;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Executor lagEviction;
+
+    public CaffeineUserCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Duration.ZERO);
+    }
+
+    public CaffeineUserCache(UserCacheProperties properties, MeterRegistry meterRegistry, Duration replicaLag) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.missingUsers = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeMaximumSize())
+                .expireAfterWrite(properties.getNegativeTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingUsers, "users.missing");
+        this.lagEviction = replicaLag.isPositive()
+                ? CompletableFuture.delayedExecutor(replicaLag.toMillis(), TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    @Override
+    public Optional<UserDto> get(Long id, Function<Long, Optional<UserDto>> loader) {
+        if (missingUsers.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+
+        UserDto cached = users.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long generation = generation(id);
+        Optional<UserDto> user = loader.apply(id);
+        user.ifPresentOrElse(
+                dto -> store(users, id, dto, generation),
+                () -> store(missingUsers, id, Boolean.TRUE, generation)
+        );
+        return user;
+    }
+
+    @Override
+    public Map<Long, UserDto> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, UserDto>> loader) {
+        Map<Long, UserDto> result = new HashMap<>(users.getAllPresent(ids));
+        Map<Long, Long> toLoad = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (!result.containsKey(id) && missingUsers.getIfPresent(id) == null) {
+                toLoad.put(id, generation(id));
+            }
+        }
+        if (toLoad.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, UserDto> loaded = loader.apply(toLoad.keySet());
+        toLoad.forEach((id, generation) -> {
+            UserDto user = loaded.get(id);
+            if (user != null) {
+                store(users, id, user, generation);
+            } else {
+                store(missingUsers, id, Boolean.TRUE, generation);
+            }
+        });
+        result.putAll(loaded);
+        return result;
+    }
+
+    @Override
+    public void evict(Long id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                    if (lagEviction != null) {
+                        lagEviction.execute(() -> invalidate(id));
+                    }
+                }
+            });
+        }
+    }
+
+    /** Stores the value unless the id was evicted after the generation was read. */
+    private <V> void store(Cache<Long, V> cache, Long id, V value, long generation) {
+        cache.asMap().compute(id, (key, current) -> generation(key) == generation ? value : current);
+    }
+
+    private long generation(Long id) {
+        return generations.get(stripe(id));
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (GENERATION_STRIPES - 1);
+    }
+
+    /** Bumps the generation before removing, so a load still in flight will not store its value. */
+    private void invalidate(Long id) {
+        generations.incrementAndGet(stripe(id));
+        users.invalidate(id);
+        missingUsers.invalidate(id);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.user_subscription.cache;
+
+import com.example.user_subscription.dto.UserDto;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+public class NoOpUserCache implements UserCache {
+
+    @Override
+    public Optional<UserDto> get(Long id, Function<Long, Optional<UserDto>> loader) {
+        return loader.apply(id);
+    }
+
+    @Override
+    public Map<Long, UserDto> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, UserDto>> loader) {
+        return loader.apply(new LinkedHashSet<>(ids));
+    }
+
+    @Override
+    public void evict(Long id) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.user_subscription.cache;
+
+import com.example.user_subscription.dto.UserDto;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+public interface UserCache {
+    Optional<UserDto> get(Long id, Function<Long, Optional<UserDto>> loader);
+    Map<Long, UserDto> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, UserDto>> loader);
+    void evict(Long id);
+}
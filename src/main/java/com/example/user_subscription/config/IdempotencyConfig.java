@@ -0,0 +1,39 @@
+package com.example.user_subscription.config;
+
+import com.example.user_subscription.idempotency.CaffeineIdempotencyStore;
+import com.example.user_subscription.idempotency.IdempotencyFilter;
+import com.example.user_subscription.idempotency.IdempotencyStore;
+import com.example.user_subscription.idempotency.JdbcIdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "idempotency", name = "jdbc-enabled", havingValue = "false", matchIfMissing = true)
+    public IdempotencyStore caffeineIdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        return new CaffeineIdempotencyStore(properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "idempotency", name = "jdbc-enabled", havingValue = "true")
+    public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new JdbcIdempotencyStore(jdbcTemplate, new CaffeineIdempotencyStore(properties, meterRegistry),
+                properties);
+    }
+
+    @Bean
+    public IdempotencyFilter idempotencyFilter(IdempotencyStore idempotencyStore, IdempotencyProperties properties,
+                                               ObjectMapper objectMapper) {
+        return new IdempotencyFilter(idempotencyStore, properties, objectMapper);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    private List<String> paths = new ArrayList<>(List.of("/users", "/users/{id}/subscriptions"));
+
+    private long maximumSize = 100_000;
+
+    private Duration ttl = Duration.ofHours(24);
+
+    private Duration inFlightTimeout = Duration.ofSeconds(10);
+
+    private boolean jdbcEnabled = false;
+
+    private long cleanupIntervalMs = 3_600_000;
+}
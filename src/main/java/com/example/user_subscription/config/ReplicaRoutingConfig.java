@@ -0,0 +1,85 @@
+package com.example.user_subscription.config;
+
+import com.example.user_subscription.datasource.ReadYourWritesFilter;
+import com.example.user_subscription.datasource.ReplicaHealthMonitor;
+import com.example.user_subscription.datasource.ReplicaRoutingDataSource;
+import com.example.user_subscription.datasource.ReplicaRoutingDataSource.Replica;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Replaces the single pool with a primary pool plus one read-only pool per replica
+ * when {@code datasource.replicas.enabled} is set. Read-only transactions go to the
+ * replicas, everything else to the primary.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        List<Replica> replicas = properties.getNodes().stream()
+                .map(node -> new Replica(node.getName(),
+                        replicaPool(node, dataSourceProperties, properties, meterRegistry)))
+                .toList();
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                     ReplicaRoutingProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new ReplicaHealthMonitor(replicaRoutingDataSource.getReplicas(), properties, meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesFilter(properties.getReadYourWritesWindow());
+    }
+
+    private static HikariDataSource replicaPool(ReplicaRoutingProperties.Node node,
+                                                DataSourceProperties dataSourceProperties,
+                                                ReplicaRoutingProperties properties,
+                                                MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica-" + node.getName());
+        pool.setJdbcUrl(node.getUrl());
+        pool.setUsername(node.getUsername() != null ? node.getUsername() : dataSourceProperties.determineUsername());
+        pool.setPassword(node.getPassword() != null ? node.getPassword() : dataSourceProperties.determinePassword());
+        pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        pool.setMaximumPoolSize(node.getMaximumPoolSize());
+        pool.setReadOnly(true);
+        pool.setInitializationFailTimeout(-1);
+        pool.setConnectionTimeout(Math.max(250, properties.getHealthCheckTimeout().toMillis()));
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
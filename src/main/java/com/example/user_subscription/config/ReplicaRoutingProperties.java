@@ -0,0 +1,39 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private long healthCheckIntervalMs = 5_000;
+
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    private Duration readYourWritesWindow = Duration.ofSeconds(10);
+
+    @Data
+    public static class Node {
+
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.user_subscription.config;
+
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.datasource.ShardRoutingAspect;
+import com.example.user_subscription.datasource.ShardRoutingDataSource;
+import com.example.user_subscription.model.id.PooledSequenceGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Replaces the single pool with one pool per shard when {@code datasource.shards.enabled}
+ * is set. Every shard holds the full schema and is migrated on startup; users and their
+ * subscriptions are spread over them by {@link ShardRouter}. Cannot be combined with
+ * read replicas.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "datasource.shards", name = "enabled", havingValue = "true")
+public class ShardRoutingConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ShardRoutingProperties properties,
+                                                         DataSourceProperties dataSourceProperties,
+                                                         Environment environment,
+                                                         MeterRegistry meterRegistry) {
+        if (properties.getNodes().isEmpty()) {
+            throw new IllegalStateException("Шардирование включено, но не задан ни один шард");
+        }
+        if (environment.getProperty("datasource.replicas.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("Шардирование нельзя включать вместе с репликами чтения");
+        }
+        List<DataSource> shards = properties.getNodes().stream()
+                .map(node -> (DataSource) shardPool(node, dataSourceProperties, environment, meterRegistry))
+                .toList();
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardRoutingAspect shardRoutingAspect(ShardRouter shardRouter) {
+        return new ShardRoutingAspect(shardRouter);
+    }
+
+    /** Applies the migrations to every shard instead of only the one unbound connections reach. */
+    @Bean
+    public FlywayMigrationStrategy shardFlywayMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> shardRoutingDataSource.getShards().forEach(shard -> Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(shard)
+                .load()
+                .migrate());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardCountHibernateCustomizer(ShardRouter shardRouter) {
+        return properties -> properties.put(PooledSequenceGenerator.SHARD_COUNT_SETTING, shardRouter.shardCount());
+    }
+
+    private static HikariDataSource shardPool(ShardRoutingProperties.Node node,
+                                              DataSourceProperties dataSourceProperties,
+                                              Environment environment,
+                                              MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("shard-" + node.getName());
+        pool.setJdbcUrl(node.getUrl());
+        pool.setUsername(node.getUsername() != null ? node.getUsername() : dataSourceProperties.determineUsername());
+        pool.setPassword(node.getPassword() != null ? node.getPassword() : dataSourceProperties.determinePassword());
+        pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        pool.setMaximumPoolSize(node.getMaximumPoolSize());
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.shards")
+public class ShardRoutingProperties {
+
+    private boolean enabled = false;
+
+    /** Every shard, in order. The position is the shard number, so nodes may only be appended. */
+    private List<Node> nodes = new ArrayList<>();
+
+    @Data
+    public static class Node {
+
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.user_subscription.config;
+
+import com.example.user_subscription.metrics.SqlStatementCounter;
+import com.example.user_subscription.metrics.SqlStatementCountingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts statements on the {@code dataSource} bean that JPA, the {@code JdbcTemplate}s and
+ * Flyway share, so the per-call and per-request statement counts cover JDBC access as well
+ * as Hibernate. The pools behind it are left alone, so nothing is counted twice.
+ */
+@Configuration
+public class SqlInstrumentationConfig {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter(SqlInstrumentationProperties properties) {
+        return new SqlStatementCounter(properties.getLogSampleRate());
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlStatementCountingPostProcessor(ObjectProvider<SqlStatementCounter> counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource) {
+                    return new SqlStatementCountingDataSource(dataSource, counter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
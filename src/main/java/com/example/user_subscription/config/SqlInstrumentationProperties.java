@@ -0,0 +1,20 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "instrumentation.sql")
+public class SqlInstrumentationProperties {
+
+    private int statementBudget = 10;
+
+    private boolean failOnBudgetExceeded = false;
+
+    private double logSampleRate = 0.0;
+
+    private Set<String> budgetExemptUris = new HashSet<>();
+}
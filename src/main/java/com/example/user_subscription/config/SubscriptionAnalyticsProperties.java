@@ -0,0 +1,21 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "subscription.analytics")
+public class SubscriptionAnalyticsProperties {
+
+    private long foldIntervalMs = 5_000;
+
+    private int foldBatchSize = 5_000;
+
+    private int maxBatchesPerRun = 20;
+
+    private boolean backfillOnStartup = true;
+
+    private int maxRangeDays = 366;
+
+    private int maxRangeMonths = 36;
+}
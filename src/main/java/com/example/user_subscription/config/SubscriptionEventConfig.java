@@ -0,0 +1,73 @@
+package com.example.user_subscription.config;
+
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.event.ApplicationEventSubscriptionEventSink;
+import com.example.user_subscription.event.BrokerSubscriptionEventSink;
+import com.example.user_subscription.event.NoOpSubscriptionEventRecorder;
+import com.example.user_subscription.event.OutboxSubscriptionEventRecorder;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
+import com.example.user_subscription.event.SubscriptionEventSink;
+import com.example.user_subscription.event.SubscriptionOutboxRelay;
+import com.example.user_subscription.event.WebhookSubscriptionEventSink;
+import com.example.user_subscription.repository.SubscriptionOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class SubscriptionEventConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "subscription.events", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SubscriptionEventRecorder outboxSubscriptionEventRecorder(SubscriptionOutboxRepository outboxRepository) {
+        return new OutboxSubscriptionEventRecorder(outboxRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "subscription.events", name = "enabled", havingValue = "false")
+    public SubscriptionEventRecorder noOpSubscriptionEventRecorder() {
+        return new NoOpSubscriptionEventRecorder();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "subscription.events", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SubscriptionOutboxRelay subscriptionOutboxRelay(SubscriptionOutboxRepository outboxRepository,
+                                                           ObjectProvider<SubscriptionEventSink> sinks,
+                                                           SubscriptionEventProperties properties,
+                                                           PlatformTransactionManager transactionManager,
+                                                           MeterRegistry meterRegistry,
+                                                           ShardRouter shardRouter) {
+        return new SubscriptionOutboxRelay(outboxRepository, sinks.orderedStream().toList(), properties,
+                transactionManager, meterRegistry, shardRouter);
+    }
+
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(prefix = "subscription.events", name = "webhook-url")
+    public WebhookSubscriptionEventSink webhookSubscriptionEventSink(ObjectMapper objectMapper,
+                                                                     SubscriptionEventProperties properties) {
+        return new WebhookSubscriptionEventSink(objectMapper, properties.getWebhookUrl(), properties.getWebhookTimeout());
+    }
+
+    @Bean
+    @Order(2)
+    @ConditionalOnProperty(prefix = "subscription.events", name = "broker-enabled", havingValue = "true")
+    public BrokerSubscriptionEventSink brokerSubscriptionEventSink(SubscriptionEventProperties properties) {
+        return new BrokerSubscriptionEventSink(properties.getBrokerRetention());
+    }
+
+    @Bean
+    @Order(3)
+    @ConditionalOnProperty(prefix = "subscription.events", name = "in-process-enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ApplicationEventSubscriptionEventSink applicationEventSubscriptionEventSink(
+            ApplicationEventPublisher eventPublisher) {
+        return new ApplicationEventSubscriptionEventSink(eventPublisher);
+    }
+}
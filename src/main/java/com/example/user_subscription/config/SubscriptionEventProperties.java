@@ -0,0 +1,34 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "subscription.events")
+public class SubscriptionEventProperties {
+
+    private boolean enabled = true;
+
+    private int batchSize = 200;
+
+    private int maxBatchesPerRun = 50;
+
+    private long relayIntervalMs = 1_000;
+
+    private Duration relayTimeout = Duration.ofSeconds(30);
+
+    private boolean inProcessEnabled = true;
+
+    private URI webhookUrl;
+
+    private Duration webhookTimeout = Duration.ofSeconds(5);
+
+    private boolean brokerEnabled = false;
+
+    private int brokerRetention = 10_000;
+
+    private Duration sseTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,23 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "subscription.expiry")
+public class SubscriptionExpiryProperties {
+
+    private boolean enabled = true;
+
+    private int batchSize = 500;
+
+    private int parallelism = 2;
+
+    private double maxBatchesPerSecond = 20;
+
+    private Duration batchTimeout = Duration.ofSeconds(10);
+
+    private long sweepIntervalMs = 3_600_000;
+}
@@ -0,0 +1,13 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "subscription.import")
+public class SubscriptionImportProperties {
+
+    private int chunkSize = 1000;
+
+    private int maxRows = 500_000;
+}
@@ -0,0 +1,21 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "subscription.partitions")
+public class SubscriptionPartitionProperties {
+
+    private boolean enabled = true;
+
+    private int monthsAhead = 3;
+
+    private int retentionMonths = 24;
+
+    private Duration lockTimeout = Duration.ofSeconds(5);
+
+    private long maintenanceIntervalMs = 21_600_000;
+}
@@ -0,0 +1,17 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "subscription.popularity")
+public class SubscriptionPopularityProperties {
+
+    private int defaultLimit = 3;
+
+    private int maxLimit = 100;
+
+    private long reconcileIntervalMs = 30_000;
+
+    private boolean seedOnStartup = true;
+}
@@ -0,0 +1,20 @@
+package com.example.user_subscription.config;
+
+import java.time.Duration;
+
+/**
+ * Conversions of configured {@link Duration} timeouts for APIs that take whole seconds.
+ */
+public final class Timeouts {
+
+    private Timeouts() {
+    }
+
+    /**
+     * Transaction and JDBC query timeouts are whole seconds and treat 0 as no timeout,
+     * so anything under a second is clamped to one instead of switching the timeout off.
+     */
+    public static int wholeSeconds(Duration timeout) {
+        return (int) Math.max(1, timeout.toSeconds());
+    }
+}
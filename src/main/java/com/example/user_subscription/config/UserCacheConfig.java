@@ -0,0 +1,30 @@
+package com.example.user_subscription.config;
+
+import com.example.user_subscription.cache.CaffeineUserCache;
+import com.example.user_subscription.cache.NoOpUserCache;
+import com.example.user_subscription.cache.UserCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class UserCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "user.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public UserCache caffeineUserCache(UserCacheProperties properties,
+                                       ReplicaRoutingProperties replicaProperties,
+                                       MeterRegistry meterRegistry) {
+        Duration replicaLag = replicaProperties.isEnabled() ? replicaProperties.getMaxLag() : Duration.ZERO;
+        return new CaffeineUserCache(properties, meterRegistry, replicaLag);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "user.cache", name = "enabled", havingValue = "false")
+    public UserCache noOpUserCache() {
+        return new NoOpUserCache();
+    }
+}
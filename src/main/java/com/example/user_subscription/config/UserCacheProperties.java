@@ -0,0 +1,21 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "user.cache")
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 100_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private long negativeMaximumSize = 100_000;
+
+    private Duration negativeTtl = Duration.ofSeconds(30);
+}
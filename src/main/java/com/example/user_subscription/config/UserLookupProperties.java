@@ -0,0 +1,13 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "user.lookup")
+public class UserLookupProperties {
+
+    private int maxIds = 1000;
+
+    private int chunkSize = 500;
+}
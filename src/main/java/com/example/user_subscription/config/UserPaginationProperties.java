@@ -0,0 +1,15 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "user.pagination")
+public class UserPaginationProperties {
+
+    private int defaultPageSize = 100;
+
+    private int maxPageSize = 1000;
+
+    private int streamFetchSize = 500;
+}
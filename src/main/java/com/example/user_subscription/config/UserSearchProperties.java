@@ -0,0 +1,15 @@
+package com.example.user_subscription.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "user.search")
+public class UserSearchProperties {
+
+    private int defaultPageSize = 20;
+
+    private int maxPageSize = 100;
+
+    private int maxPrefixLength = 255;
+}
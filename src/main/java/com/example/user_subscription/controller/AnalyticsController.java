@@ -0,0 +1,45 @@
+package com.example.user_subscription.controller;
+
+import com.example.user_subscription.dto.MonthlyChurnDto;
+import com.example.user_subscription.dto.ServiceDailyStatsDto;
+import com.example.user_subscription.dto.SubscriptionStatusDto;
+import com.example.user_subscription.service.SubscriptionAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    private final SubscriptionAnalyticsService analyticsService;
+
+    @GetMapping("/services/{serviceName}/daily")
+    public List<ServiceDailyStatsDto> getDailyStats(
+            @PathVariable String serviceName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getDailyStats(serviceName, from, to);
+    }
+
+    @GetMapping("/status")
+    public List<SubscriptionStatusDto> getStatusCounts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String serviceName) {
+        return analyticsService.getStatusCounts(date, serviceName);
+    }
+
+    @GetMapping("/churn")
+    public List<MonthlyChurnDto> getMonthlyChurn(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(required = false) String serviceName) {
+        return analyticsService.getMonthlyChurn(from, to, serviceName);
+    }
+}
@@ -1,20 +1,30 @@
 package com.example.user_subscription.controller;
 
+import com.example.user_subscription.dto.ServicePopularityDto;
 import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.VersionedSubscriptionsDto;
+import com.example.user_subscription.event.SubscriptionEventBroadcaster;
 import com.example.user_subscription.service.SubscriptionService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/users/{id}/subscriptions")
 @RequiredArgsConstructor
 public class SubscriptionController {
     private final SubscriptionService subscriptionService;
+    private final SubscriptionEventBroadcaster subscriptionEventBroadcaster;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -23,9 +33,29 @@ public class SubscriptionController {
         return subscriptionService.addSubscription(id, subscriptionDto);
     }
 
+    /**
+     * A conditional request is answered from the version alone. Otherwise the list and its
+     * version come from one statement, so the ETag always describes the body it is sent with.
+     */
     @GetMapping
-    public List<SubscriptionDto> getUserSubscriptions(@NotNull @PathVariable Long id) {
-        return subscriptionService.getUserSubscriptions(id);
+    public ResponseEntity<List<SubscriptionDto>> getUserSubscriptions(
+            @NotNull @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = VersionETag.of(subscriptionService.getSubscriptionsVersion(id));
+            if (VersionETag.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        VersionedSubscriptionsDto subscriptions = subscriptionService.getVersionedUserSubscriptions(id);
+        return ResponseEntity.ok()
+                .eTag(VersionETag.of(subscriptions.getVersion()))
+                .body(subscriptions.getSubscriptions());
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSubscriptionEvents(@NotNull @PathVariable Long id) {
+        return subscriptionEventBroadcaster.subscribe(id);
     }
 
     @DeleteMapping("/{subId}")
@@ -37,7 +67,8 @@ public class SubscriptionController {
     }
 
     @GetMapping("/top")
-    public List<Object[]> getTop3PopularSubscriptions() {
-        return subscriptionService.getTop3PopularSubscriptions();
+    public List<ServicePopularityDto> getTopPopularSubscriptions(
+            @RequestParam(required = false) Integer limit) {
+        return subscriptionService.getTopPopularSubscriptions(limit);
     }
 }
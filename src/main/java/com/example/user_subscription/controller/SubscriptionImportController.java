@@ -0,0 +1,45 @@
+package com.example.user_subscription.controller;
+
+import com.example.user_subscription.dto.SubscriptionImportReportDto;
+import com.example.user_subscription.service.SubscriptionImportService;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/users")
+@RequiredArgsConstructor
+public class SubscriptionImportController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final SubscriptionImportService subscriptionImportService;
+
+    @PostMapping(value = "/subscriptions:bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public SubscriptionImportReportDto importSubscriptionsJson(InputStream body) {
+        return subscriptionImportService.importJson(null, body);
+    }
+
+    @PostMapping(value = "/subscriptions:bulk", consumes = TEXT_CSV_VALUE)
+    public SubscriptionImportReportDto importSubscriptionsCsv(InputStream body) {
+        return subscriptionImportService.importCsv(null, new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    @PostMapping(value = "/{id}/subscriptions:bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public SubscriptionImportReportDto importUserSubscriptionsJson(@NotNull @PathVariable Long id,
+                                                                   InputStream body) {
+        return subscriptionImportService.importJson(id, body);
+    }
+
+    @PostMapping(value = "/{id}/subscriptions:bulk", consumes = TEXT_CSV_VALUE)
+    public SubscriptionImportReportDto importUserSubscriptionsCsv(@NotNull @PathVariable Long id,
+                                                                  InputStream body) {
+        return subscriptionImportService.importCsv(id, new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+}
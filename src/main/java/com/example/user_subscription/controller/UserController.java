@@ -1,20 +1,33 @@
 package com.example.user_subscription.controller;
 
 import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.dto.UserLookupDto;
+import com.example.user_subscription.dto.UserPageDto;
+import com.example.user_subscription.dto.UserSearchPageDto;
 import com.example.user_subscription.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -23,13 +36,37 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public UserDto getUserById(@NotNull @PathVariable Long id) {
-        return userService.getUserById(id);
+    public ResponseEntity<UserDto> getUserById(
+            @NotNull @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = VersionETag.of(userService.getUserVersion(id));
+            if (VersionETag.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        UserDto user = userService.getUserById(id);
+        return ResponseEntity.ok().eTag(VersionETag.of(user.getVersion())).body(user);
+    }
+
+    @GetMapping(params = "ids")
+    public UserLookupDto getUsersByIds(@RequestParam List<Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
+    @PostMapping("/lookup")
+    public UserLookupDto lookupUsers(@RequestBody List<Long> ids) {
+        return userService.getUsersByIds(ids);
     }
 
     @PutMapping("/{id}")
-    public UserDto updateUser(@NotNull @PathVariable Long id, @Valid @RequestBody UserDto userDto) {
-        return userService.updateUser(id, userDto);
+    public ResponseEntity<UserDto> updateUser(
+            @NotNull @PathVariable Long id,
+            @Valid @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch == null ? null : VersionETag.expectedVersion(ifMatch);
+        UserDto user = userService.updateUser(id, userDto, expectedVersion);
+        return ResponseEntity.ok().eTag(VersionETag.of(user.getVersion())).body(user);
     }
 
     @DeleteMapping("/{id}")
@@ -39,7 +76,28 @@ public class UserController {
     }
 
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        return userService.getAllUsers();
+    public UserPageDto getAllUsers(@RequestParam(required = false) Long cursor,
+                                   @RequestParam(required = false) Integer size) {
+        return userService.getAllUsers(cursor, size);
+    }
+
+    @GetMapping("/search")
+    public UserSearchPageDto searchUsers(@RequestParam(required = false) String email,
+                                         @RequestParam(required = false) String name,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size) {
+        return userService.searchUsers(email, name, cursor, size);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllUsers() {
+        return outputStream -> userService.streamAllUsers(user -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(user));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 }
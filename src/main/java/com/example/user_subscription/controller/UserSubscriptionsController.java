@@ -0,0 +1,36 @@
+package com.example.user_subscription.controller;
+
+import com.example.user_subscription.dto.UserSubscriptionsLookupDto;
+import com.example.user_subscription.event.SubscriptionEventBroadcaster;
+import com.example.user_subscription.service.SubscriptionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/users/subscriptions")
+@RequiredArgsConstructor
+public class UserSubscriptionsController {
+    private final SubscriptionService subscriptionService;
+    private final SubscriptionEventBroadcaster subscriptionEventBroadcaster;
+
+    @GetMapping(params = "userIds")
+    public UserSubscriptionsLookupDto getSubscriptionsForUsers(@RequestParam List<Long> userIds) {
+        return subscriptionService.getSubscriptionsForUsers(userIds);
+    }
+
+    @PostMapping("/lookup")
+    public UserSubscriptionsLookupDto lookupSubscriptions(@RequestBody List<Long> userIds) {
+        return subscriptionService.getSubscriptionsForUsers(userIds);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSubscriptionEvents() {
+        return subscriptionEventBroadcaster.subscribeAll();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.user_subscription.controller;
+
+/**
+ * Strong ETags built from row versions. The version alone identifies the
+ * representation because a tag is only ever compared for the same URL.
+ */
+final class VersionETag {
+    static final long NO_MATCH = -1;
+
+    private VersionETag() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** Weak comparison over an {@code If-None-Match} list, as RFC 9110 prescribes for it. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version named by an {@code If-Match} header: {@code null} for {@code *}, and
+     * {@link #NO_MATCH} for anything that is not a single strong tag of ours.
+     */
+    static Long expectedVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return NO_MATCH;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+}
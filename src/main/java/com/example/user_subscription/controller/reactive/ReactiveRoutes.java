@@ -0,0 +1,39 @@
+package com.example.user_subscription.controller.reactive;
+
+import com.example.user_subscription.exception.handler.reactive.ReactiveErrorMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Same paths as {@code UserController} and {@code SubscriptionController}, served by
+ * WebFlux when the {@code reactive} profile is active.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(UserHandler userHandler,
+                                                     SubscriptionHandler subscriptionHandler,
+                                                     ReactiveErrorMapper errorMapper) {
+        return route()
+                .path("/users", users -> users
+                        .GET("/stream", userHandler::streamAllUsers)
+                        .GET("/{id}/subscriptions/top", subscriptionHandler::getTopPopularSubscriptions)
+                        .POST("/{id}/subscriptions", subscriptionHandler::addSubscription)
+                        .GET("/{id}/subscriptions", subscriptionHandler::getUserSubscriptions)
+                        .DELETE("/{id}/subscriptions/{subId}", subscriptionHandler::deleteSubscription)
+                        .POST("", userHandler::createUser)
+                        .GET("", userHandler::getAllUsers)
+                        .GET("/{id}", userHandler::getUserById)
+                        .PUT("/{id}", userHandler::updateUser)
+                        .DELETE("/{id}", userHandler::deleteUser))
+                .filter(errorMapper)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.user_subscription.controller.reactive;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * What {@code @Valid} and {@code @PathVariable}/{@code @RequestParam} binding do for the
+ * annotated controllers, for the functional routes.
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+class RequestValidator {
+    private final Validator validator;
+
+    <T> Mono<T> body(ServerRequest request, Class<T> type, Function<String, RuntimeException> error) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> error.apply("Тело запроса не может быть пустым")))
+                .flatMap(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    if (violations.isEmpty()) {
+                        return Mono.just(body);
+                    }
+                    return Mono.error(error.apply(violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining("; "))));
+                });
+    }
+
+    Long pathId(ServerRequest request, String name, Function<String, RuntimeException> error) {
+        return parse(request.pathVariable(name), name, error);
+    }
+
+    Optional<Long> queryLong(ServerRequest request, String name, Function<String, RuntimeException> error) {
+        return request.queryParam(name).map(value -> parse(value, name, error));
+    }
+
+    private static Long parse(String value, String name, Function<String, RuntimeException> error) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw error.apply("Параметр " + name + " должен быть числом");
+        }
+    }
+}
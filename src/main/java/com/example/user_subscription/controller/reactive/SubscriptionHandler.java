@@ -0,0 +1,50 @@
+package com.example.user_subscription.controller.reactive;
+
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.service.ReactiveSubscriptionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class SubscriptionHandler {
+    private final ReactiveSubscriptionService subscriptionService;
+    private final RequestValidator requestValidator;
+
+    public Mono<ServerResponse> addSubscription(ServerRequest request) {
+        Long userId = id(request, "id");
+        return requestValidator.body(request, SubscriptionDto.class, SubscriptionIllegalArgumentException::new)
+                .flatMap(subscriptionDto -> subscriptionService.addSubscription(userId, subscriptionDto))
+                .flatMap(subscription -> ServerResponse.status(HttpStatus.CREATED).bodyValue(subscription));
+    }
+
+    public Mono<ServerResponse> getUserSubscriptions(ServerRequest request) {
+        return subscriptionService.getUserSubscriptions(id(request, "id"))
+                .collectList()
+                .flatMap(subscriptions -> ServerResponse.ok().bodyValue(subscriptions));
+    }
+
+    public Mono<ServerResponse> deleteSubscription(ServerRequest request) {
+        return subscriptionService.deleteSubscription(id(request, "id"), id(request, "subId"))
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> getTopPopularSubscriptions(ServerRequest request) {
+        Integer limit = requestValidator.queryLong(request, "limit", SubscriptionIllegalArgumentException::new)
+                .map(Long::intValue)
+                .orElse(null);
+        return subscriptionService.getTopPopularSubscriptions(limit)
+                .flatMap(top -> ServerResponse.ok().bodyValue(top));
+    }
+
+    private Long id(ServerRequest request, String name) {
+        return requestValidator.pathId(request, name, SubscriptionIllegalArgumentException::new);
+    }
+}
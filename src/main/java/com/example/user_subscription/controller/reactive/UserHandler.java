@@ -0,0 +1,63 @@
+package com.example.user_subscription.controller.reactive;
+
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.exception.exceptions.user.UserIllegalArgumentException;
+import com.example.user_subscription.service.ReactiveUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class UserHandler {
+    private final ReactiveUserService userService;
+    private final RequestValidator requestValidator;
+
+    public Mono<ServerResponse> createUser(ServerRequest request) {
+        return requestValidator.body(request, UserDto.class, UserIllegalArgumentException::new)
+                .flatMap(userService::createUser)
+                .flatMap(user -> ServerResponse.status(HttpStatus.CREATED).bodyValue(user));
+    }
+
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        return userService.getUserById(id(request))
+                .flatMap(user -> ServerResponse.ok().bodyValue(user));
+    }
+
+    public Mono<ServerResponse> updateUser(ServerRequest request) {
+        Long id = id(request);
+        return requestValidator.body(request, UserDto.class, UserIllegalArgumentException::new)
+                .flatMap(userDto -> userService.updateUser(id, userDto))
+                .flatMap(user -> ServerResponse.ok().bodyValue(user));
+    }
+
+    public Mono<ServerResponse> deleteUser(ServerRequest request) {
+        return userService.deleteUser(id(request))
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> getAllUsers(ServerRequest request) {
+        Long cursor = requestValidator.queryLong(request, "cursor", UserIllegalArgumentException::new).orElse(null);
+        Integer size = requestValidator.queryLong(request, "size", UserIllegalArgumentException::new)
+                .map(Long::intValue)
+                .orElse(null);
+        return userService.getAllUsers(cursor, size)
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    public Mono<ServerResponse> streamAllUsers(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService.streamAllUsers(), UserDto.class);
+    }
+
+    private Long id(ServerRequest request) {
+        return requestValidator.pathId(request, "id", UserIllegalArgumentException::new);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.user_subscription.datasource;
+
+/**
+ * Read-your-writes state of the current request. Once the request has written through
+ * the primary, its later read-only transactions stay there too, and the callback lets
+ * the web layer keep the client on the primary for its next requests.
+ */
+public final class ReadYourWritesContext {
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    public static void open(boolean pinned, Runnable onFirstWrite) {
+        STATE.set(new State(pinned, onFirstWrite));
+    }
+
+    public static void close() {
+        STATE.remove();
+    }
+
+    public static boolean isPinned() {
+        State state = STATE.get();
+        return state != null && state.pinned;
+    }
+
+    static void recordWrite() {
+        State state = STATE.get();
+        if (state == null || state.written) {
+            return;
+        }
+        state.written = true;
+        state.pinned = true;
+        state.onFirstWrite.run();
+    }
+
+    private static final class State {
+        private final Runnable onFirstWrite;
+        private boolean pinned;
+        private boolean written;
+
+        private State(boolean pinned, Runnable onFirstWrite) {
+            this.pinned = pinned;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+}
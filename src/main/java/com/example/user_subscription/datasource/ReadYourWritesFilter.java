@@ -0,0 +1,57 @@
+package com.example.user_subscription.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Keeps a client on the primary for a short window after it has written. The first
+ * write of a request sets a cookie with the end of the window; requests carrying an
+ * unexpired cookie read from the primary.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String COOKIE_NAME = "primary-until";
+
+    private final Duration window;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWritesContext.open(pinnedUntil(request) > System.currentTimeMillis(), () -> {
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(System.currentTimeMillis() + window.toMillis()));
+            cookie.setMaxAge((int) window.toSeconds());
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        });
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.close();
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
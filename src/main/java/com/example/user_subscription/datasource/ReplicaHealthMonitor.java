@@ -0,0 +1,82 @@
+package com.example.user_subscription.datasource;
+
+import com.example.user_subscription.config.ReplicaRoutingProperties;
+import com.example.user_subscription.config.Timeouts;
+import com.example.user_subscription.datasource.ReplicaRoutingDataSource.Replica;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically measures replay lag on every replica. A replica that is unreachable or
+ * lags behind by more than {@code datasource.replicas.max-lag} stops receiving reads
+ * until a later check finds it caught up; with none left, reads fall back to the primary.
+ */
+@Slf4j
+public class ReplicaHealthMonitor {
+    // A replica with nothing left to replay is current even if the primary has been idle.
+    private static final String LAG_QUERY = """
+        SELECT CAST(CASE
+            WHEN NOT pg_is_in_recovery() THEN 0
+            WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+            ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+        END AS bigint)
+        """;
+
+    private final ReplicaRoutingProperties properties;
+    private final Map<Replica, JdbcTemplate> probes = new LinkedHashMap<>();
+
+    public ReplicaHealthMonitor(List<Replica> replicas, ReplicaRoutingProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (Replica replica : replicas) {
+            JdbcTemplate probe = new JdbcTemplate(replica.getDataSource());
+            probe.setQueryTimeout(Timeouts.wholeSeconds(properties.getHealthCheckTimeout()));
+            probes.put(replica, probe);
+
+            Gauge.builder("datasource.replica.lag", replica, Replica::getLagMillis)
+                    .tag("replica", replica.getName())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        probes.forEach(this::check);
+    }
+
+    private void check(Replica replica, JdbcTemplate probe) {
+        boolean available;
+        try {
+            Long lagMillis = probe.queryForObject(LAG_QUERY, Long.class);
+            replica.setLagMillis(lagMillis == null ? -1 : lagMillis);
+            available = lagMillis != null && lagMillis <= properties.getMaxLag().toMillis();
+            if (!available && replica.isAvailable()) {
+                log.warn("Реплика {} отстаёт на {} мс, чтение переключено на другие узлы",
+                        replica.getName(), lagMillis);
+            }
+        } catch (DataAccessException e) {
+            replica.setLagMillis(-1);
+            available = false;
+            if (replica.isAvailable()) {
+                log.warn("Реплика {} недоступна: {}", replica.getName(), e.getMessage());
+            }
+        }
+
+        if (available && !replica.isAvailable()) {
+            log.info("Реплика {} принимает чтение, отставание {} мс", replica.getName(), replica.getLagMillis());
+        }
+        replica.setAvailable(available);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.user_subscription.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Shard the current thread works on. Read by {@link ShardRoutingDataSource} when a
+ * connection is opened and by the id generator; unbound threads use the first shard.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /** The bound shard, or {@code null} outside any shard-scoped call. */
+    public static Integer current() {
+        return SHARD.get();
+    }
+
+    /**
+     * Wraps a task handed to a pool so that it runs on the shard of the submitting thread.
+     */
+    public static Runnable propagate(Runnable task) {
+        Integer shard = SHARD.get();
+        if (shard == null) {
+            return task;
+        }
+        return () -> {
+            Integer previous = bind(shard);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * A transaction keeps the connection of the shard it started on, so switching shards
+     * inside one would silently keep writing to the old shard.
+     */
+    static Integer bind(int shard) {
+        Integer previous = SHARD.get();
+        if (previous != null && previous != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(String.format(
+                    "Транзакция открыта на шарде %d, переход на шард %d невозможен", previous, shard));
+        }
+        SHARD.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(previous);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.user_subscription.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the user id parameter of a service method. The whole call, including its
+ * transaction, runs on the shard that user lives on; see {@link ShardRoutingAspect}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
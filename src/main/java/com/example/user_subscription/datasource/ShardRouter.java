@@ -0,0 +1,170 @@
+package com.example.user_subscription.datasource;
+
+import com.example.user_subscription.config.ShardRoutingProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Maps users to shards and runs work on them. A user, with all of its subscriptions,
+ * lives on the shard that generated its id. Cross-shard reads fan out in parallel, one task per
+ * shard. With sharding off there is a single shard and everything runs inline on the
+ * caller's thread, inside whatever transaction it has open.
+ */
+@Component
+public class ShardRouter {
+    private final int shardCount;
+    private final ExecutorService executor;
+
+    public ShardRouter(ShardRoutingProperties properties) {
+        this.shardCount = properties.isEnabled() ? Math.max(properties.getNodes().size(), 1) : 1;
+        this.executor = shardCount > 1
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-", 0).factory())
+                : null;
+    }
+
+    /**
+     * Shard an id belongs to. Generated ids carry their shard as the remainder (see
+     * {@code PooledSequenceGenerator}), so this is also the shard that wrote the row. The
+     * shard count is therefore fixed for the life of a deployment.
+     */
+    public static int shardOf(long id, int shardCount) {
+        return (int) Math.floorMod(id, (long) shardCount);
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(long userId) {
+        return shardOf(userId, shardCount);
+    }
+
+    /**
+     * Shard a new user is created on. Placing by email lets the unique email index of
+     * one shard catch concurrent sign-ups with the same address.
+     */
+    public int shardForEmail(String email) {
+        return shardOf(mix(email.hashCode()), shardCount);
+    }
+
+    /** Murmur3's 64-bit finalizer, so similar addresses still spread evenly. */
+    private static long mix(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public <T> T callOn(int shard, Supplier<T> action) {
+        if (shardCount == 1) {
+            return action.get();
+        }
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    public void runOn(int shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** Runs the action on every shard in turn on the caller's thread; stops at the first failure. */
+    public void forEachShard(Runnable action) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            runOn(shard, action);
+        }
+    }
+
+    /** Runs the action on every shard in parallel; results come back in shard order. */
+    public <T> List<T> scatter(Supplier<T> action) {
+        if (shardCount == 1) {
+            return Collections.singletonList(action.get());
+        }
+        Map<Integer, Supplier<T>> tasks = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            tasks.put(shard, action);
+        }
+        return invokeAll(tasks);
+    }
+
+    /**
+     * Splits the user ids by shard and runs the action once per shard that owns any of
+     * them, in parallel, with that shard's ids. The results are concatenated.
+     */
+    public <T> List<T> scatterByUser(Collection<Long> userIds, Function<List<Long>, List<T>> action) {
+        if (shardCount == 1) {
+            return action.apply(List.copyOf(userIds));
+        }
+        Map<Integer, Supplier<List<T>>> tasks = new TreeMap<>();
+        groupByShard(userIds, Long::longValue).forEach((shard, ids) -> tasks.put(shard, () -> action.apply(ids)));
+
+        List<T> results = new ArrayList<>();
+        invokeAll(tasks).forEach(results::addAll);
+        return results;
+    }
+
+    /** Groups items by the shard of their user, in shard order, keeping their order within a shard. */
+    public <K> Map<Integer, List<K>> groupByShard(Collection<K> items, ToLongFunction<K> userId) {
+        Map<Integer, List<K>> groups = new TreeMap<>();
+        for (K item : items) {
+            groups.computeIfAbsent(shardFor(userId.applyAsLong(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    private <T> List<T> invokeAll(Map<Integer, Supplier<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        tasks.forEach((shard, task) -> futures.add(executor.submit(() -> callOn(shard, task))));
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано ожидание ответа шардов", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.user_subscription.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binds the shard of the {@link ShardKey} argument around a service call. Runs outside
+ * the transaction advice, so the transaction opens on that shard. A {@code null} key
+ * leaves the call unbound; such methods route their own work.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+    private final ShardRouter shardRouter;
+    private final Map<Method, Integer> keyPositions = new ConcurrentHashMap<>();
+
+    @Around("execution(* com.example.user_subscription.service..*(.., "
+            + "@com.example.user_subscription.datasource.ShardKey (*), ..))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = AopUtils.getMostSpecificMethod(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getTarget().getClass());
+        Object key = joinPoint.getArgs()[keyPositions.computeIfAbsent(method, ShardRoutingAspect::keyPosition)];
+        if (!(key instanceof Long userId)) {
+            return joinPoint.proceed();
+        }
+
+        Integer previous = ShardContext.bind(shardRouter.shardFor(userId));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private static int keyPosition(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return i;
+                }
+            }
+        }
+        throw new IllegalStateException("Нет параметра @ShardKey в методе " + method);
+    }
+}
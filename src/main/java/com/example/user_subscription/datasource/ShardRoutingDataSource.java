@@ -0,0 +1,50 @@
+package com.example.user_subscription.datasource;
+
+import lombok.Getter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends each connection to the shard bound in {@link ShardContext}. Connections opened
+ * outside a shard-scoped call go to the first shard, which also holds the instance-wide
+ * tables such as idempotency keys and the popularity totals flushed by this instance.
+ * Must sit behind a {@code LazyConnectionDataSourceProxy} so that a transaction begun
+ * before its shard is bound still picks the shard at its first statement.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final int HOME_SHARD = 0;
+
+    @Getter
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(HOME_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard == null ? HOME_SHARD : shard;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
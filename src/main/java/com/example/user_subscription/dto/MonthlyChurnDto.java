@@ -0,0 +1,25 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MonthlyChurnDto {
+
+    private YearMonth month;
+
+    private long activeAtStart;
+
+    private long started;
+
+    private long expired;
+
+    private long cancelled;
+
+    private Double churnRate;
+}
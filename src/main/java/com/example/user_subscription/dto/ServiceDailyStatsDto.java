@@ -0,0 +1,23 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceDailyStatsDto {
+
+    private LocalDate day;
+
+    private long started;
+
+    private long expired;
+
+    private long cancelled;
+
+    private long active;
+}
@@ -0,0 +1,15 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServicePopularityDto {
+
+    private String serviceName;
+
+    private Long count;
+}
@@ -0,0 +1,25 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionEventDto {
+
+    private Long id;
+
+    private SubscriptionEventType type;
+
+    private Long userId;
+
+    private Long subscriptionId;
+
+    private String serviceName;
+
+    private Instant occurredAt;
+}
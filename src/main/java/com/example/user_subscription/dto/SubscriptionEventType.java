@@ -0,0 +1,7 @@
+package com.example.user_subscription.dto;
+
+public enum SubscriptionEventType {
+    SUBSCRIPTION_ADDED,
+    SUBSCRIPTION_REMOVED,
+    USER_DELETED
+}
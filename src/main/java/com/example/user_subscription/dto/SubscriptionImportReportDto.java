@@ -0,0 +1,26 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionImportReportDto {
+
+    private int total;
+
+    private int created;
+
+    private int failed;
+
+    private List<SubscriptionImportResultDto> results;
+
+    /** Set when the body broke off or exceeded the row limit after some chunks were already saved. */
+    private boolean aborted;
+
+    private String abortReason;
+}
@@ -0,0 +1,19 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionImportResultDto {
+
+    private int row;
+
+    private SubscriptionImportStatus status;
+
+    private Long subscriptionId;
+
+    private String message;
+}
@@ -0,0 +1,9 @@
+package com.example.user_subscription.dto;
+
+public enum SubscriptionImportStatus {
+    CREATED,
+    INVALID,
+    USER_NOT_FOUND,
+    DUPLICATE,
+    FAILED
+}
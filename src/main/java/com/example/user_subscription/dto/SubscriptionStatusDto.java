@@ -0,0 +1,19 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionStatusDto {
+
+    private String serviceName;
+
+    private long active;
+
+    private long expired;
+
+    private long cancelled;
+}
@@ -1,5 +1,6 @@
 package com.example.user_subscription.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
@@ -16,4 +17,11 @@ public class UserDto {
     @Email(message = "Email should be valid")
     private String email;
 
+    /** Row version, sent as the ETag header rather than in the body. */
+    @JsonIgnore
+    private Long version;
+
+    public UserDto(Long id, String name, String email) {
+        this(id, name, email, null);
+    }
 }
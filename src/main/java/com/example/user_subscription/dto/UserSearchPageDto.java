@@ -0,0 +1,18 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSearchPageDto {
+
+    private List<UserDto> users;
+
+    /** Opaque cursor for the next page, {@code null} on the last one. */
+    private String next;
+}
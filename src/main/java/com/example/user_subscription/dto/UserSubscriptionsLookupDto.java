@@ -0,0 +1,17 @@
+package com.example.user_subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSubscriptionsLookupDto {
+
+    private List<UserSubscriptionsDto> users;
+
+    private List<Long> missingIds;
+}
@@ -0,0 +1,21 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.dto.SubscriptionEventDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+/**
+ * Publishes every event to in-process {@code @EventListener}s, including the SSE
+ * broadcaster, which only receives them after the relay's transaction commits.
+ */
+@RequiredArgsConstructor
+public class ApplicationEventSubscriptionEventSink implements SubscriptionEventSink {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<SubscriptionEventDto> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
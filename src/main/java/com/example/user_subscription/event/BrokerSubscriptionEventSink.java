@@ -0,0 +1,32 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.dto.SubscriptionEventDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Embedded stand-in for a message broker topic: keeps the last {@code retention} events
+ * in memory and replays them to every new subscriber of {@link #events()}.
+ */
+public class BrokerSubscriptionEventSink implements SubscriptionEventSink {
+    private static final Sinks.EmitFailureHandler RETRY_ON_CONTENTION =
+            Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+    private final Sinks.Many<SubscriptionEventDto> topic;
+
+    public BrokerSubscriptionEventSink(int retention) {
+        this.topic = Sinks.many().replay().limit(retention);
+    }
+
+    @Override
+    public void publish(List<SubscriptionEventDto> events) {
+        events.forEach(event -> topic.emitNext(event, RETRY_ON_CONTENTION));
+    }
+
+    public Flux<SubscriptionEventDto> events() {
+        return topic.asFlux();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.dto.SubscriptionEventType;
+
+public class NoOpSubscriptionEventRecorder implements SubscriptionEventRecorder {
+
+    @Override
+    public void record(SubscriptionEventType type, Long userId, Long subscriptionId, String serviceName) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.model.SubscriptionOutboxEvent;
+import com.example.user_subscription.repository.SubscriptionOutboxRepository;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+
+@RequiredArgsConstructor
+public class OutboxSubscriptionEventRecorder implements SubscriptionEventRecorder {
+    private final SubscriptionOutboxRepository outboxRepository;
+
+    @Override
+    public void record(SubscriptionEventType type, Long userId, Long subscriptionId, String serviceName) {
+        outboxRepository.save(new SubscriptionOutboxEvent(null, type, userId, subscriptionId, serviceName, Instant.now()));
+    }
+}
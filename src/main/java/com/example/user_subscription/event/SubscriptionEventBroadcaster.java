@@ -0,0 +1,77 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.config.SubscriptionEventProperties;
+import com.example.user_subscription.dto.SubscriptionEventDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans relayed events out to open SSE connections, either for one user or for all
+ * users. Fed by the in-process sink, so it stays silent when that sink is disabled.
+ * Events arrive once the relay's batch has committed, so slow SSE writes never hold
+ * the outbox transaction open.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class SubscriptionEventBroadcaster {
+    private static final Long ALL_USERS = 0L;
+
+    private final SubscriptionEventProperties properties;
+    private final Map<Long, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public SseEmitter subscribe(Long userId) {
+        return register(userId);
+    }
+
+    public SseEmitter subscribeAll() {
+        return register(ALL_USERS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvent(SubscriptionEventDto event) {
+        send(emitters.get(event.getUserId()), event);
+        send(emitters.get(ALL_USERS), event);
+    }
+
+    private SseEmitter register(Long key) {
+        SseEmitter emitter = new SseEmitter(properties.getSseTimeout().toMillis());
+        emitters.compute(key, (id, registered) -> {
+            Set<SseEmitter> set = registered == null ? ConcurrentHashMap.newKeySet() : registered;
+            set.add(emitter);
+            return set;
+        });
+        Runnable unregister = () -> emitters.computeIfPresent(key, (id, registered) -> {
+            registered.remove(emitter);
+            return registered.isEmpty() ? null : registered;
+        });
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(e -> unregister.run());
+        return emitter;
+    }
+
+    private static void send(Set<SseEmitter> targets, SubscriptionEventDto event) {
+        if (targets == null) {
+            return;
+        }
+        for (SseEmitter emitter : targets) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getId()))
+                        .name(event.getType().name())
+                        .data(event));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
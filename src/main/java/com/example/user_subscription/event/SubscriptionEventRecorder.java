@@ -0,0 +1,10 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.dto.SubscriptionEventType;
+
+/**
+ * Records a subscription change as part of the caller's transaction.
+ */
+public interface SubscriptionEventRecorder {
+    void record(SubscriptionEventType type, Long userId, Long subscriptionId, String serviceName);
+}
@@ -0,0 +1,14 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.dto.SubscriptionEventDto;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events. A sink that throws makes the relay roll the
+ * batch back into the outbox, so delivery is at least once and consumers should
+ * deduplicate by event id.
+ */
+public interface SubscriptionEventSink {
+    void publish(List<SubscriptionEventDto> events);
+}
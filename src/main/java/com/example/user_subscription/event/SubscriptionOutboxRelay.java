@@ -0,0 +1,89 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.config.SubscriptionEventProperties;
+import com.example.user_subscription.config.Timeouts;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.SubscriptionEventDto;
+import com.example.user_subscription.repository.SubscriptionOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Drains {@code subscription_outbox} into the configured sinks. Each batch is claimed,
+ * published and deleted in one transaction, so a failing sink leaves the batch in the
+ * outbox for the next run. Sinks run in their {@code @Order}; the ones that can fail go
+ * first, and the SSE broadcaster is only handed a batch after it commits. When sharded,
+ * every shard has its own outbox and they are drained one after another.
+ */
+@Slf4j
+public class SubscriptionOutboxRelay {
+    private final SubscriptionOutboxRepository outboxRepository;
+    private final List<SubscriptionEventSink> sinks;
+    private final SubscriptionEventProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    private final Counter publishedCounter;
+    private final Counter failedBatchCounter;
+
+    public SubscriptionOutboxRelay(SubscriptionOutboxRepository outboxRepository,
+                                   List<SubscriptionEventSink> sinks,
+                                   SubscriptionEventProperties properties,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   ShardRouter shardRouter) {
+        this.outboxRepository = outboxRepository;
+        this.sinks = List.copyOf(sinks);
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(Timeouts.wholeSeconds(properties.getRelayTimeout()));
+        this.shardRouter = shardRouter;
+
+        this.publishedCounter = meterRegistry.counter("subscription.outbox.published");
+        this.failedBatchCounter = meterRegistry.counter("subscription.outbox.batches.failed");
+    }
+
+    @Scheduled(fixedDelayString = "${subscription.events.relay-interval-ms:1000}")
+    public void relay() {
+        shardRouter.forEachShard(this::relayShard);
+    }
+
+    private void relayShard() {
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int published;
+            try {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } catch (RuntimeException e) {
+                failedBatchCounter.increment();
+                log.warn("Не удалось опубликовать события подписок, повтор при следующем запуске: {}", e.getMessage());
+                return;
+            }
+            if (published < properties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    private int relayBatch() {
+        List<SubscriptionEventDto> events = outboxRepository.claimBatch(properties.getBatchSize()).stream()
+                .map(view -> new SubscriptionEventDto(view.getId(), view.getEventType(), view.getUserId(),
+                        view.getSubscriptionId(), view.getServiceName(), view.getOccurredAt()))
+                .sorted(Comparator.comparing(SubscriptionEventDto::getId))
+                .toList();
+        if (events.isEmpty()) {
+            return 0;
+        }
+        for (SubscriptionEventSink sink : sinks) {
+            sink.publish(events);
+        }
+        publishedCounter.increment(events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.dto.SubscriptionEventDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as a JSON array; any status other than 2xx fails the batch.
+ */
+public class WebhookSubscriptionEventSink implements SubscriptionEventSink {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI uri;
+    private final Duration timeout;
+
+    public WebhookSubscriptionEventSink(ObjectMapper objectMapper, URI uri, Duration timeout) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.objectMapper = objectMapper;
+        this.uri = uri;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void publish(List<SubscriptionEventDto> events) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(events)))
+                .build();
+        int status;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Отправка событий подписок прервана", e);
+        }
+        if (status / 100 != 2) {
+            throw new IllegalStateException(String.format("Webhook %s ответил статусом %d", uri, status));
+        }
+    }
+
+    private byte[] toJson(List<SubscriptionEventDto> events) {
+        try {
+            return objectMapper.writeValueAsBytes(events);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать события подписок", e);
+        }
+    }
+}
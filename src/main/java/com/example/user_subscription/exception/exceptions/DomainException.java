@@ -0,0 +1,22 @@
+package com.example.user_subscription.exception.exceptions;
+
+import com.example.user_subscription.exception.ErrorResponse;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Expected, client-caused failure on a normal request path. Skips stack trace capture
+ * and carries the {@link ErrorResponse} the advices write, so a 4xx costs one small
+ * allocation. Immutable, so constant-message instances can be preallocated and shared.
+ */
+@Getter
+public abstract class DomainException extends RuntimeException {
+    private final HttpStatus status;
+    private final ErrorResponse errorResponse;
+
+    protected DomainException(String message, HttpStatus status) {
+        super(message, null, false, false);
+        this.status = status;
+        this.errorResponse = new ErrorResponse(message, status);
+    }
+}
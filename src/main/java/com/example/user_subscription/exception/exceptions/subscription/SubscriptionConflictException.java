@@ -1,7 +1,10 @@
 package com.example.user_subscription.exception.exceptions.subscription;
 
-public class SubscriptionConflictException extends RuntimeException {
+import com.example.user_subscription.exception.exceptions.DomainException;
+import org.springframework.http.HttpStatus;
+
+public class SubscriptionConflictException extends DomainException {
     public SubscriptionConflictException(String message) {
-        super(message);
+        super(message, HttpStatus.CONFLICT);
     }
 }
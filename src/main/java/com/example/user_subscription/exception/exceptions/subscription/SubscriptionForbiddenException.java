@@ -1,7 +1,10 @@
 package com.example.user_subscription.exception.exceptions.subscription;
 
-public class SubscriptionForbiddenException extends RuntimeException {
+import com.example.user_subscription.exception.exceptions.DomainException;
+import org.springframework.http.HttpStatus;
+
+public class SubscriptionForbiddenException extends DomainException {
     public SubscriptionForbiddenException(String message) {
-        super(message);
+        super(message, HttpStatus.FORBIDDEN);
     }
 }
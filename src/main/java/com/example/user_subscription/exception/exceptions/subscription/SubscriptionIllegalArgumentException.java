@@ -1,7 +1,10 @@
 package com.example.user_subscription.exception.exceptions.subscription;
 
-public class SubscriptionIllegalArgumentException extends RuntimeException {
+import com.example.user_subscription.exception.exceptions.DomainException;
+import org.springframework.http.HttpStatus;
+
+public class SubscriptionIllegalArgumentException extends DomainException {
     public SubscriptionIllegalArgumentException(String message) {
-        super(message);
+        super(message, HttpStatus.BAD_REQUEST);
     }
 }
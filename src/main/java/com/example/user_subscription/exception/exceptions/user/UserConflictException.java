@@ -1,7 +1,10 @@
 package com.example.user_subscription.exception.exceptions.user;
 
-public class UserConflictException extends RuntimeException {
+import com.example.user_subscription.exception.exceptions.DomainException;
+import org.springframework.http.HttpStatus;
+
+public class UserConflictException extends DomainException {
     public UserConflictException(String message) {
-        super(message);
+        super(message, HttpStatus.CONFLICT);
     }
 }
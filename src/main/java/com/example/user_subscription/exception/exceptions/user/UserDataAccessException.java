@@ -4,4 +4,8 @@ public class UserDataAccessException extends RuntimeException {
     public UserDataAccessException(String message) {
         super(message);
     }
+
+    public UserDataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -1,7 +1,10 @@
 package com.example.user_subscription.exception.exceptions.user;
 
-public class UserEmptyResultDataAccessException extends RuntimeException {
+import com.example.user_subscription.exception.exceptions.DomainException;
+import org.springframework.http.HttpStatus;
+
+public class UserEmptyResultDataAccessException extends DomainException {
     public UserEmptyResultDataAccessException(String message) {
-        super(message);
+        super(message, HttpStatus.NOT_FOUND);
     }
 }
@@ -1,7 +1,15 @@
 package com.example.user_subscription.exception.exceptions.user;
 
-public class UserIllegalArgumentException extends RuntimeException {
+import com.example.user_subscription.exception.exceptions.DomainException;
+import org.springframework.http.HttpStatus;
+
+public class UserIllegalArgumentException extends DomainException {
+    public static final UserIllegalArgumentException INVALID_USER_ID =
+            new UserIllegalArgumentException("ID пользователя должно быть положительным числом");
+    public static final UserIllegalArgumentException EMPTY_USER_IDS =
+            new UserIllegalArgumentException("Список ID пользователей не может быть пустым");
+
     public UserIllegalArgumentException(String message) {
-        super(message);
+        super(message, HttpStatus.BAD_REQUEST);
     }
 }
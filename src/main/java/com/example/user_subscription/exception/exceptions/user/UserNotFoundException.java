@@ -1,7 +1,10 @@
 package com.example.user_subscription.exception.exceptions.user;
 
-public class UserNotFoundException extends RuntimeException {
+import com.example.user_subscription.exception.exceptions.DomainException;
+import org.springframework.http.HttpStatus;
+
+public class UserNotFoundException extends DomainException {
     public UserNotFoundException(String message) {
-        super(message);
+        super(message, HttpStatus.NOT_FOUND);
     }
 }
@@ -0,0 +1,10 @@
+package com.example.user_subscription.exception.exceptions.user;
+
+import com.example.user_subscription.exception.exceptions.DomainException;
+import org.springframework.http.HttpStatus;
+
+public class UserPreconditionFailedException extends DomainException {
+    public UserPreconditionFailedException(String message) {
+        super(message, HttpStatus.PRECONDITION_FAILED);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.user_subscription.exception.handler.reactive;
+
+import com.example.user_subscription.exception.ErrorResponse;
+import com.example.user_subscription.exception.exceptions.DomainException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionConflictException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionForbiddenException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.*;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Functional-route equivalent of {@code UserControllerAdvice} and
+ * {@code SubscriptionControllerAdvice}: same statuses, same {@link ErrorResponse} body.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveErrorMapper implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+    private static final Map<Class<? extends RuntimeException>, HttpStatus> STATUSES = Map.of(
+            UserIllegalArgumentException.class, HttpStatus.BAD_REQUEST,
+            UserNotFoundException.class, HttpStatus.NOT_FOUND,
+            UserEmptyResultDataAccessException.class, HttpStatus.NOT_FOUND,
+            UserConflictException.class, HttpStatus.CONFLICT,
+            UserAlreadyExistsException.class, HttpStatus.CONFLICT,
+            UserPreconditionFailedException.class, HttpStatus.PRECONDITION_FAILED,
+            UserDataAccessException.class, HttpStatus.INTERNAL_SERVER_ERROR,
+            SubscriptionIllegalArgumentException.class, HttpStatus.BAD_REQUEST,
+            SubscriptionConflictException.class, HttpStatus.CONFLICT,
+            SubscriptionForbiddenException.class, HttpStatus.FORBIDDEN
+    );
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request,
+                                       HandlerFunction<ServerResponse> next) {
+        return Mono.defer(() -> next.handle(request)).onErrorResume(this::supports, this::toResponse);
+    }
+
+    private boolean supports(Throwable error) {
+        return statusOf(error) != null;
+    }
+
+    private Mono<ServerResponse> toResponse(Throwable error) {
+        if (error instanceof DomainException domain) {
+            return ServerResponse.status(domain.getStatus()).bodyValue(domain.getErrorResponse());
+        }
+        HttpStatus status = statusOf(error);
+        return ServerResponse.status(status).bodyValue(new ErrorResponse(error.getMessage(), status));
+    }
+
+    private static HttpStatus statusOf(Throwable error) {
+        for (Class<?> type = error.getClass(); type != null; type = type.getSuperclass()) {
+            HttpStatus status = STATUSES.get(type);
+            if (status != null) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -3,42 +3,50 @@ package com.example.user_subscription.exception.handler.user;
 import com.example.user_subscription.controller.UserController;
 import com.example.user_subscription.exception.ErrorResponse;
 import com.example.user_subscription.exception.exceptions.user.*;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+@Profile("!reactive")
 @RestControllerAdvice(basePackageClasses = UserController.class)
 public class UserControllerAdvice {
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(UserIllegalArgumentException.class)
     public ErrorResponse handleUserIllegalArgument(UserIllegalArgumentException ex) {
-        return new ErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+        return ex.getErrorResponse();
     }
 
     @ResponseStatus(HttpStatus.NOT_FOUND)
     @ExceptionHandler(UserNotFoundException.class)
     public ErrorResponse handleUserNotFound(UserNotFoundException ex) {
-        return new ErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
+        return ex.getErrorResponse();
     }
 
     @ResponseStatus(HttpStatus.NOT_FOUND)
     @ExceptionHandler(UserEmptyResultDataAccessException.class)
     public ErrorResponse handleUserEmptyResultDataAccess(UserEmptyResultDataAccessException ex) {
-        return new ErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
+        return ex.getErrorResponse();
     }
 
     @ResponseStatus(HttpStatus.CONFLICT)
     @ExceptionHandler(UserConflictException.class)
     public ErrorResponse handleUserConflict(UserConflictException ex) {
-        return new ErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
+        return ex.getErrorResponse();
     }
 
     @ResponseStatus(HttpStatus.CONFLICT)
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ErrorResponse handleUserAlreadyExists(UserAlreadyExistsException ex) {
-        return new ErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
+        return ex.getErrorResponse();
+    }
+
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ExceptionHandler(UserPreconditionFailedException.class)
+    public ErrorResponse handleUserPreconditionFailed(UserPreconditionFailedException ex) {
+        return ex.getErrorResponse();
     }
 
     @ExceptionHandler(UserDataAccessException.class)
@@ -0,0 +1,32 @@
+package com.example.user_subscription.idempotency;
+
+import com.example.user_subscription.config.IdempotencyProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Optional;
+
+public class CaffeineIdempotencyStore implements IdempotencyStore {
+    private final Cache<String, IdempotentResponse> responses;
+
+    public CaffeineIdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response) {
+        responses.put(key, response);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.user_subscription.idempotency;
+
+import com.example.user_subscription.config.IdempotencyProperties;
+import com.example.user_subscription.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays the recorded response for a POST that repeats an {@code Idempotency-Key},
+ * without reaching the controllers. Responses below 500 are recorded; a duplicate that
+ * arrives while the first request is still running waits for it, up to
+ * {@code idempotency.in-flight-timeout}, and then gets the same response. Reusing a key
+ * with a different body is rejected with 422.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<PathPattern> paths;
+    private final ConcurrentMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties, ObjectMapper objectMapper) {
+        this.store = store;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.paths = properties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        return paths.stream().noneMatch(pattern -> pattern.matches(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    String.format("Idempotency-Key должен содержать от 1 до %d символов", MAX_KEY_LENGTH));
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        String requestHash = sha256(body);
+        String key = request.getRequestURI() + " " + idempotencyKey;
+
+        Optional<IdempotentResponse> stored = store.find(key);
+        if (stored.isPresent()) {
+            replay(stored.get(), requestHash, response);
+            return;
+        }
+
+        CompletableFuture<IdempotentResponse> claim = new CompletableFuture<>();
+        CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(key, claim);
+        if (running != null) {
+            awaitAndReplay(running, requestHash, response);
+            return;
+        }
+
+        IdempotentResponse recorded = null;
+        try {
+            stored = store.find(key);
+            if (stored.isPresent()) {
+                recorded = stored.get();
+                replay(recorded, requestHash, response);
+                return;
+            }
+
+            ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(new CachedBodyRequest(request, body), responseWrapper);
+            if (responseWrapper.getStatus() < 500) {
+                recorded = new IdempotentResponse(requestHash, responseWrapper.getStatus(),
+                        responseWrapper.getContentType(), responseWrapper.getContentAsByteArray());
+                store.save(key, recorded);
+                recorded = store.find(key).orElse(recorded);
+            }
+            responseWrapper.copyBodyToResponse();
+        } finally {
+            inFlight.remove(key, claim);
+            claim.complete(recorded);
+        }
+    }
+
+    private void awaitAndReplay(CompletableFuture<IdempotentResponse> running, String requestHash,
+                                HttpServletResponse response) throws IOException {
+        IdempotentResponse first;
+        try {
+            first = running.get(properties.getInFlightTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            first = null;
+        } catch (ExecutionException | TimeoutException e) {
+            first = null;
+        }
+
+        if (first == null) {
+            writeError(response, HttpStatus.CONFLICT,
+                    "Запрос с этим Idempotency-Key ещё выполняется или завершился ошибкой, повторите позже");
+            return;
+        }
+        replay(first, requestHash, response);
+    }
+
+    private void replay(IdempotentResponse stored, String requestHash, HttpServletResponse response)
+            throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key уже использован для запроса с другим телом");
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message, status));
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /** The whole body is already in memory, so it is available and read in one go. */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
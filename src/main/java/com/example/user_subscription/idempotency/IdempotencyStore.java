@@ -0,0 +1,8 @@
+package com.example.user_subscription.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+    Optional<IdempotentResponse> find(String key);
+    void save(String key, IdempotentResponse response);
+}
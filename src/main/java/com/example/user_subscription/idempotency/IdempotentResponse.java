@@ -0,0 +1,8 @@
+package com.example.user_subscription.idempotency;
+
+/**
+ * Response recorded for an idempotency key, together with a hash of the request body
+ * that produced it.
+ */
+public record IdempotentResponse(String requestHash, int status, String contentType, byte[] body) {
+}
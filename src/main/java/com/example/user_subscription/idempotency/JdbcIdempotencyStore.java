@@ -0,0 +1,83 @@
+package com.example.user_subscription.idempotency;
+
+import com.example.user_subscription.config.IdempotencyProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps responses in {@code idempotency_keys} so that retries landing on another
+ * instance or after a restart are replayed too. Lookups go through the in-memory store
+ * first; the first response saved for a key wins.
+ */
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyStore nearCache;
+    private final IdempotencyProperties properties;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyStore nearCache,
+                                IdempotencyProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nearCache = nearCache;
+        this.properties = properties;
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        Optional<IdempotentResponse> cached = nearCache.find(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Optional<IdempotentResponse> stored = load(key);
+        stored.ifPresent(response -> nearCache.save(key, response));
+        return stored;
+    }
+
+    /**
+     * When another request already stored a response for the key, the insert does
+     * nothing and that stored response, not this one, goes into the in-memory store.
+     */
+    @Override
+    public void save(String key, IdempotentResponse response) {
+        int inserted = jdbcTemplate.update("""
+                        INSERT INTO idempotency_keys (idempotency_key, request_hash, status, content_type, body, created_at)
+                        VALUES (?, ?, ?, ?, ?, now())
+                        ON CONFLICT (idempotency_key) DO NOTHING
+                        """,
+                key, response.requestHash(), response.status(), response.contentType(), response.body());
+        if (inserted > 0) {
+            nearCache.save(key, response);
+            return;
+        }
+        load(key).ifPresent(stored -> nearCache.save(key, stored));
+    }
+
+    private Optional<IdempotentResponse> load(String key) {
+        return jdbcTemplate.query("""
+                        SELECT request_hash, status, content_type, body
+                        FROM idempotency_keys
+                        WHERE idempotency_key = ? AND created_at > ?
+                        """,
+                (rs, rowNum) -> new IdempotentResponse(rs.getString("request_hash"), rs.getInt("status"),
+                        rs.getString("content_type"), rs.getBytes("body")),
+                key, expiredBefore()).stream().findFirst();
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at <= ?", expiredBefore());
+        if (deleted > 0) {
+            log.info("Удалено {} устаревших ключей идемпотентности", deleted);
+        }
+    }
+
+    private Timestamp expiredBefore() {
+        return Timestamp.from(Instant.now().minus(properties.getTtl()));
+    }
+}
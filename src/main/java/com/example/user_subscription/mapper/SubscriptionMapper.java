@@ -2,6 +2,7 @@ package com.example.user_subscription.mapper;
 
 import com.example.user_subscription.dto.SubscriptionDto;
 import com.example.user_subscription.model.Subscription;
+import com.example.user_subscription.model.reactive.SubscriptionRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -13,4 +14,6 @@ public interface SubscriptionMapper {
 
     @Mapping(source = "user.id", target = "userId")
     SubscriptionDto toDto(Subscription subscription);
+
+    SubscriptionDto toDto(SubscriptionRow subscriptionRow);
 }
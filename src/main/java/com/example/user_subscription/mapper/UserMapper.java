@@ -2,7 +2,9 @@ package com.example.user_subscription.mapper;
 
 import com.example.user_subscription.dto.UserDto;
 import com.example.user_subscription.model.User;
+import com.example.user_subscription.model.reactive.UserRow;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
@@ -11,5 +13,8 @@ public interface UserMapper {
 
     UserDto toDto(User user);
     List<UserDto> toDtoList(List<User> users);
+    @Mapping(target = "subscriptions", ignore = true)
+    @Mapping(target = "subscriptionsVersion", ignore = true)
     User toUser(UserDto userDto);
+    UserDto toDto(UserRow userRow);
 }
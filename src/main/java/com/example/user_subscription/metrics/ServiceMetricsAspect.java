@@ -0,0 +1,75 @@
+package com.example.user_subscription.metrics;
+
+import com.example.user_subscription.config.SqlInstrumentationProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call of the blocking user and subscription services and records how many
+ * SQL statements it issued. Runs outside the transaction advice so the flush on commit
+ * is counted too. Calls over the statement budget are logged, or fail when
+ * {@code instrumentation.sql.fail-on-budget-exceeded} is set, as it is in tests. The budget
+ * is only checked for calls that returned normally, so it never masks the original exception.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final SqlInstrumentationProperties properties;
+
+    @Around("execution(* com.example.user_subscription.service.UserService.*(..))"
+            + " || execution(* com.example.user_subscription.service.SubscriptionService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        long statementsBefore = SqlStatementCounter.current();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        long statements = 0;
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            statements = SqlStatementCounter.current() - statementsBefore;
+            sample.stop(Timer.builder("service.method")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+            DistributionSummary.builder("service.method.sql.statements")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+        checkBudget(service + "." + method, statements);
+        return result;
+    }
+
+    private void checkBudget(String call, long statements) {
+        if (statements <= properties.getStatementBudget()) {
+            return;
+        }
+        String message = String.format("%s выполнил %d SQL-запросов при бюджете %d, возможна проблема N+1",
+                call, statements, properties.getStatementBudget());
+        if (properties.isFailOnBudgetExceeded()) {
+            throw new SqlStatementBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+}
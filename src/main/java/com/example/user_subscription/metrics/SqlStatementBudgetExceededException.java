@@ -0,0 +1,7 @@
+package com.example.user_subscription.metrics;
+
+public class SqlStatementBudgetExceededException extends RuntimeException {
+    public SqlStatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
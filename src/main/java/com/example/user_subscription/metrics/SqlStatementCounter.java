@@ -0,0 +1,34 @@
+package com.example.user_subscription.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts the SQL statements sent through the application's {@code DataSource} on the
+ * current thread, whether Hibernate or a {@code JdbcTemplate} issued them (see
+ * {@link SqlStatementCountingDataSource}). Callers take {@link #current()} before and
+ * after a unit of work and record the difference, so nested measurements need no
+ * bookkeeping. A configurable fraction of statements is logged instead of all of them.
+ */
+@Slf4j
+public class SqlStatementCounter {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final double logSampleRate;
+
+    public SqlStatementCounter(double logSampleRate) {
+        this.logSampleRate = logSampleRate;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    public void count(String sql) {
+        COUNT.get()[0]++;
+        if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            log.info("SQL: {}", sql);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.user_subscription.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out connections that report every statement to a {@link SqlStatementCounter}.
+ * A prepared or callable statement counts once when it is prepared, however often it
+ * is executed or batched, which is how Hibernate batches inserts; plain statements
+ * count per SQL string executed or added to a batch. Closing it closes the target, so a
+ * wrapped pool is still shut down with the context.
+ */
+public class SqlStatementCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+    private final SqlStatementCounter counter;
+
+    public SqlStatementCountingDataSource(DataSource targetDataSource, SqlStatementCounter counter) {
+        super(targetDataSource);
+        this.counter = counter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            String name = method.getName();
+            if ((name.equals("prepareStatement") || name.equals("prepareCall")) && args[0] instanceof String sql) {
+                counter.count(sql);
+            }
+            Object result = method.invoke(connection, args);
+            if (name.equals("createStatement")) {
+                return countingStatement((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private Statement countingStatement(Statement statement) {
+        return proxy(Statement.class, statement, (method, args) -> {
+            String name = method.getName();
+            if ((name.startsWith("execute") || name.equals("addBatch"))
+                    && args != null && args.length > 0 && args[0] instanceof String sql) {
+                counter.count(sql);
+            }
+            return method.invoke(statement, args);
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Interceptor interceptor) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return interceptor.invoke(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.user_subscription.metrics;
+
+import com.example.user_subscription.config.SqlInstrumentationProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records the number of SQL statements per request, tagged like
+ * {@code http.server.requests}, and warns about requests over the statement budget.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+    private final SqlInstrumentationProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long statementsBefore = SqlStatementCounter.current();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long statements = SqlStatementCounter.current() - statementsBefore;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(statements);
+            if (statements > properties.getStatementBudget() && !properties.getBudgetExemptUris().contains(uri)) {
+                log.warn("{} {} выполнил {} SQL-запросов при бюджете {}, возможна проблема N+1",
+                        request.getMethod(), uri, statements, properties.getStatementBudget());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.user_subscription.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "service_popularity")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServicePopularity {
+    @Id
+    @Column(name = "service_name")
+    private String serviceName;
+
+    @Column(name = "subscription_count", nullable = false)
+    private long subscriptionCount;
+}
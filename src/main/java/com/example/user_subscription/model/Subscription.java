@@ -1,5 +1,6 @@
 package com.example.user_subscription.model;
 
+import com.example.user_subscription.model.id.PooledSequence;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -8,20 +9,30 @@ import lombok.Setter;
 
 import java.time.LocalDate;
 
+/**
+ * Stored in a table partitioned by month of {@link #startDate}; its primary key is
+ * {@code (id, start_date)}. One subscription per user and service is enforced through
+ * {@code subscription_keys}, which triggers keep in step (see V2__partition_subscriptions.sql).
+ */
 @Entity
-@Table(name = "subscriptions")
+@Table(name = "subscriptions",
+        indexes = {
+                @Index(name = "idx_subscriptions_user_id", columnList = "user_id"),
+                @Index(name = "idx_subscriptions_end_date_id", columnList = "end_date, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Subscription {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(sequence = "subscriptions_seq")
     private Long id;
 
     @Column(nullable = false)
     private String serviceName;
 
+    @Column(nullable = false)
     private LocalDate startDate;
 
     private LocalDate endDate;
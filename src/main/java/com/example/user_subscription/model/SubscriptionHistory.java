@@ -0,0 +1,43 @@
+package com.example.user_subscription.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Subscriptions moved out of {@code subscriptions}: expired ones by the expiry sweeper,
+ * and ones removed while still running, marked with {@link #cancelledOn}. The id is the
+ * original subscription id; the user is kept as a plain column so history survives user
+ * deletion. Together with the live table this is the source the analytics rollups are
+ * rebuilt from.
+ */
+@Entity
+@Table(name = "subscriptions_history", indexes = @Index(name = "idx_subscriptions_history_user", columnList = "user_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionHistory {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String serviceName;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    private LocalDate cancelledOn;
+}
@@ -0,0 +1,41 @@
+package com.example.user_subscription.model;
+
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.model.id.PooledSequence;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Subscription change written in the same transaction as the change itself and removed
+ * once the outbox relay has handed it to the configured sinks.
+ */
+@Entity
+@Table(name = "subscription_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionOutboxEvent {
+    @Id
+    @PooledSequence(sequence = "subscription_outbox_seq")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private SubscriptionEventType eventType;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private Long subscriptionId;
+
+    private String serviceName;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+}
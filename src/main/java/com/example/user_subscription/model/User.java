@@ -1,7 +1,9 @@
 package com.example.user_subscription.model;
 
+import com.example.user_subscription.model.id.PooledSequence;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 import java.util.Objects;
@@ -14,7 +16,7 @@ import java.util.Objects;
 @AllArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(sequence = "users_seq")
     private Long id;
 
     @Column(nullable = false)
@@ -23,9 +25,33 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    /**
+     * Read-only view for queries. Nothing cascades through it: subscriptions are written
+     * and deleted set-based by their own statements, never by loading this collection.
+     */
+    @OneToMany(mappedBy = "user")
     private List<Subscription> subscriptions;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Bumped by the subscription write statements themselves, never by entity flushes,
+     * so it is the version of the user's subscription set.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long subscriptionsVersion;
+
+    public User(Long id, String name, String email, List<Subscription> subscriptions) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.subscriptions = subscriptions;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
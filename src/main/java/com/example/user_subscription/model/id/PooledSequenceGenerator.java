@@ -0,0 +1,71 @@
+package com.example.user_subscription.model.id;
+
+import com.example.user_subscription.datasource.ShardContext;
+import com.example.user_subscription.datasource.ShardRouter;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sequence generator behind {@link PooledSequence}, using the pooled-lo optimizer, with
+ * the allocation size taken from {@value #ALLOCATION_SIZE_SETTING} instead of being
+ * fixed in the mapping. The database sequence must be created with the same increment.
+ * <p>
+ * When {@value #SHARD_COUNT_SETTING} is above one, every shard has its own sequence, so
+ * each keeps its own pool and ids are drawn from the shard bound to the current thread.
+ * A sequence value {@code v} of shard {@code s} becomes the id {@code v * shardCount + s},
+ * so ids of every entity are unique across shards and route back to the shard that wrote
+ * them (see {@link ShardRouter#shardOf}) without skipping any sequence values.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE_SETTING = "user_subscription.id.allocation_size";
+    public static final String SHARD_COUNT_SETTING = "user_subscription.id.shard_count";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+    private final Map<Integer, Optimizer> shardOptimizers = new ConcurrentHashMap<>();
+    private int shardCount;
+
+    public PooledSequenceGenerator(PooledSequence config) {
+        this.sequenceName = config.sequence();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        ConfigurationService configuration = serviceRegistry.requireService(ConfigurationService.class);
+        Integer allocationSize = configuration
+                .getSetting(ALLOCATION_SIZE_SETTING, value -> Integer.valueOf(value.toString()), DEFAULT_ALLOCATION_SIZE);
+        shardCount = configuration.getSetting(SHARD_COUNT_SETTING, value -> Integer.valueOf(value.toString()), 1);
+
+        parameters.put(SequenceStyleGenerator.SEQUENCE_PARAM, sequenceName);
+        parameters.put(OptimizableGenerator.INCREMENT_PARAM, allocationSize.toString());
+        parameters.put(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (shardCount <= 1) {
+            return super.generate(session, object);
+        }
+
+        Integer bound = ShardContext.current();
+        int shard = bound == null ? 0 : bound;
+        Optimizer optimizer = shardOptimizers.computeIfAbsent(shard, key -> OptimizerFactory.buildOptimizer(
+                StandardOptimizerDescriptor.POOLED_LO, getIdentifierType().getReturnedClass(),
+                getOptimizer().getIncrementSize(), -1));
+        long value = ((Number) optimizer.generate(getDatabaseStructure().buildCallback(session))).longValue();
+        return value * shardCount + shard;
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.user_subscription.model.reactive;
+
+public record SubscriptionOwnershipRow(Boolean userExists, Long ownerId) {
+}
@@ -0,0 +1,10 @@
+package com.example.user_subscription.model.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+@Table("subscriptions")
+public record SubscriptionRow(@Id Long id, String serviceName, LocalDate startDate, LocalDate endDate, Long userId) {
+}
@@ -0,0 +1,8 @@
+package com.example.user_subscription.model.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("users")
+public record UserRow(@Id Long id, String name, String email, Long version) {
+}
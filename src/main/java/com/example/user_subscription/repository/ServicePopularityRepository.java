@@ -0,0 +1,29 @@
+package com.example.user_subscription.repository;
+
+import com.example.user_subscription.model.ServicePopularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ServicePopularityRepository extends JpaRepository<ServicePopularity, String> {
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO service_popularity (service_name, subscription_count)
+        VALUES (:serviceName, :delta)
+        ON CONFLICT (service_name)
+        DO UPDATE SET subscription_count = service_popularity.subscription_count + EXCLUDED.subscription_count
+        """, nativeQuery = true)
+    int addToCount(@Param("serviceName") String serviceName, @Param("delta") long delta);
+
+    /**
+     * Blocks subscription writes and other seeding instances until the current transaction
+     * ends, so the seed sees a settled table.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE subscriptions, service_popularity IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForSeeding();
+}
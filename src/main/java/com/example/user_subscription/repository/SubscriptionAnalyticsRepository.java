@@ -0,0 +1,236 @@
+package com.example.user_subscription.repository;
+
+import com.example.user_subscription.dto.MonthlyChurnDto;
+import com.example.user_subscription.dto.ServiceDailyStatsDto;
+import com.example.user_subscription.dto.SubscriptionStatusDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Daily rollups in {@code subscription_daily_stats}, one row per {@code (service_name, day)}:
+ * subscriptions started that day, and ones that expired or were cancelled on it. A subscription
+ * counts as active on its start day and on its last day, so the number active on {@code d} is
+ * everything started up to {@code d} minus everything that ended before {@code d}.
+ * <p>
+ * Subscription writes never touch the rollups. They append signed rows to
+ * {@code subscription_stats_deltas} in the same statement as the write, and {@link #fold}
+ * moves those into the rollups in batches; a popular service would otherwise make its
+ * rollup row for today a lock every insert queues on. Removing a subscription that has not
+ * started takes back its start and planned expiry; removing a running one takes back the
+ * expiry and counts a cancellation today, and archives it to {@code subscriptions_history}
+ * so that {@link #rebuild} can reproduce the same numbers from the two tables. Folding can
+ * leave all-zero rows behind; they read the same as no row.
+ */
+@Repository
+public class SubscriptionAnalyticsRepository {
+    /** Folds and rebuilds serialise on this advisory lock: folds share it, a rebuild takes it alone. */
+    private static final long ROLLUP_LOCK = 0x5355_4253_5354_4154L;
+
+    private static final String FOLD = """
+            WITH taken AS (
+                DELETE FROM subscription_stats_deltas
+                WHERE id IN (
+                    SELECT id FROM subscription_stats_deltas
+                    ORDER BY id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING service_name, day, started, expired, cancelled
+            ), folded AS (
+                INSERT INTO subscription_daily_stats AS s (service_name, day, started, expired, cancelled)
+                SELECT service_name, day, SUM(started), SUM(expired), SUM(cancelled)
+                FROM taken
+                GROUP BY service_name, day
+                ORDER BY service_name, day
+                ON CONFLICT (service_name, day) DO UPDATE
+                SET started = s.started + EXCLUDED.started,
+                    expired = s.expired + EXCLUDED.expired,
+                    cancelled = s.cancelled + EXCLUDED.cancelled
+            )
+            SELECT COUNT(*) FROM taken
+            """;
+
+    /**
+     * One statement, so the deltas it clears are exactly the ones whose writes are visible in
+     * the tables it aggregates; deltas committed after its snapshot stay for the next fold.
+     */
+    private static final String REBUILD = """
+            WITH cleared AS (
+                DELETE FROM subscription_stats_deltas
+            ), source AS (
+                SELECT service_name, start_date, end_date, CAST(NULL AS date) AS cancelled_on
+                FROM subscriptions
+                WHERE start_date IS NOT NULL
+                UNION ALL
+                SELECT service_name, start_date, end_date, cancelled_on
+                FROM subscriptions_history
+                WHERE start_date IS NOT NULL
+            ), events AS (
+                SELECT service_name, start_date AS day, 1 AS started, 0 AS expired, 0 AS cancelled FROM source
+                UNION ALL
+                SELECT service_name, end_date, 0, 1, 0 FROM source WHERE cancelled_on IS NULL AND end_date IS NOT NULL
+                UNION ALL
+                SELECT service_name, cancelled_on, 0, 0, 1 FROM source WHERE cancelled_on IS NOT NULL
+            ), rebuilt AS (
+                SELECT service_name, day, SUM(started) AS started, SUM(expired) AS expired, SUM(cancelled) AS cancelled
+                FROM events
+                GROUP BY service_name, day
+            ), stale AS (
+                DELETE FROM subscription_daily_stats s
+                WHERE NOT EXISTS (SELECT 1 FROM rebuilt r WHERE r.service_name = s.service_name AND r.day = s.day)
+            ), written AS (
+                INSERT INTO subscription_daily_stats AS s (service_name, day, started, expired, cancelled)
+                SELECT service_name, day, started, expired, cancelled
+                FROM rebuilt
+                ORDER BY service_name, day
+                ON CONFLICT (service_name, day) DO UPDATE
+                SET started = EXCLUDED.started,
+                    expired = EXCLUDED.expired,
+                    cancelled = EXCLUDED.cancelled
+                RETURNING 1
+            )
+            SELECT COUNT(*) FROM written
+            """;
+
+    private static final String DAILY = """
+            WITH opening AS (
+                SELECT COALESCE(SUM(started - expired - cancelled), 0) AS active
+                FROM subscription_daily_stats
+                WHERE service_name = ? AND day < ?
+            ), daily AS (
+                SELECT CAST(d AS date) AS day,
+                       COALESCE(s.started, 0) AS started,
+                       COALESCE(s.expired, 0) AS expired,
+                       COALESCE(s.cancelled, 0) AS cancelled
+                FROM generate_series(CAST(? AS timestamp), CAST(? AS timestamp), interval '1 day') d
+                LEFT JOIN subscription_daily_stats s ON s.service_name = ? AND s.day = CAST(d AS date)
+            )
+            SELECT day, started, expired, cancelled,
+                   (SELECT active FROM opening)
+                       + SUM(started) OVER w
+                       - COALESCE(SUM(expired + cancelled) OVER (w ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0)
+                       AS active
+            FROM daily
+            WINDOW w AS (ORDER BY day)
+            ORDER BY day
+            """;
+
+    private static final String STATUS = """
+            SELECT service_name,
+                   SUM(started) - COALESCE(SUM(expired + cancelled) FILTER (WHERE day < ?), 0) AS active,
+                   COALESCE(SUM(expired) FILTER (WHERE day < ?), 0) AS expired,
+                   COALESCE(SUM(cancelled) FILTER (WHERE day < ?), 0) AS cancelled
+            FROM subscription_daily_stats
+            WHERE day <= ? AND service_name = COALESCE(CAST(? AS varchar), service_name)
+            GROUP BY service_name
+            HAVING SUM(started) > 0
+            ORDER BY service_name
+            """;
+
+    private static final String CHURN = """
+            WITH monthly AS (
+                SELECT CAST(date_trunc('month', day) AS date) AS month_start,
+                       SUM(started) AS started, SUM(expired) AS expired, SUM(cancelled) AS cancelled
+                FROM subscription_daily_stats
+                WHERE day < ? AND service_name = COALESCE(CAST(? AS varchar), service_name)
+                GROUP BY 1
+            ), opening AS (
+                SELECT COALESCE(SUM(started - expired - cancelled), 0) AS active
+                FROM monthly
+                WHERE month_start < ?
+            ), series AS (
+                SELECT CAST(m AS date) AS month_start,
+                       COALESCE(x.started, 0) AS started,
+                       COALESCE(x.expired, 0) AS expired,
+                       COALESCE(x.cancelled, 0) AS cancelled
+                FROM generate_series(CAST(? AS timestamp), CAST(? AS timestamp), interval '1 month') m
+                LEFT JOIN monthly x ON x.month_start = CAST(m AS date)
+            )
+            SELECT month_start, started, expired, cancelled,
+                   (SELECT active FROM opening)
+                       + COALESCE(SUM(started - expired - cancelled)
+                                  OVER (ORDER BY month_start ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0)
+                       AS active_at_start
+            FROM series
+            ORDER BY month_start
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubscriptionAnalyticsRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /** Moves up to {@code limit} of the oldest deltas into the rollups; must run in a transaction. */
+    public int fold(int limit) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock_shared(?)", ROLLUP_LOCK);
+        Integer folded = jdbcTemplate.queryForObject(FOLD, Integer.class, limit);
+        return folded == null ? 0 : folded;
+    }
+
+    /**
+     * Recomputes every rollup row from {@code subscriptions} and {@code subscriptions_history}
+     * and drops pending deltas already reflected there; must run in a transaction.
+     */
+    public int rebuild() {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", ROLLUP_LOCK);
+        Integer written = jdbcTemplate.queryForObject(REBUILD, Integer.class);
+        return written == null ? 0 : written;
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM subscription_daily_stats)", Boolean.class));
+    }
+
+    public List<ServiceDailyStatsDto> findDailyStats(String serviceName, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(DAILY, (rs, rowNum) -> new ServiceDailyStatsDto(
+                        rs.getObject("day", LocalDate.class),
+                        rs.getLong("started"),
+                        rs.getLong("expired"),
+                        rs.getLong("cancelled"),
+                        rs.getLong("active")),
+                serviceName, from, from, to, serviceName);
+    }
+
+    /**
+     * Per service as of {@code date}: active on that day, and expired or cancelled before it.
+     * The three add up to every subscription started by then.
+     */
+    public List<SubscriptionStatusDto> findStatusCounts(LocalDate date, String serviceName) {
+        return jdbcTemplate.query(STATUS, (rs, rowNum) -> new SubscriptionStatusDto(
+                        rs.getString("service_name"),
+                        rs.getLong("active"),
+                        rs.getLong("expired"),
+                        rs.getLong("cancelled")),
+                date, date, date, date, serviceName);
+    }
+
+    /**
+     * Churn rate is the month's expirations and cancellations over the subscriptions active
+     * going into it, or {@code null} when there were none.
+     *
+     * @param serviceName one service, or {@code null} for all of them
+     */
+    public List<MonthlyChurnDto> findMonthlyChurn(YearMonth from, YearMonth to, String serviceName) {
+        LocalDate start = from.atDay(1);
+        return jdbcTemplate.query(CHURN, (rs, rowNum) -> {
+                    long activeAtStart = rs.getLong("active_at_start");
+                    long expired = rs.getLong("expired");
+                    long cancelled = rs.getLong("cancelled");
+                    return new MonthlyChurnDto(
+                            YearMonth.from(rs.getObject("month_start", LocalDate.class)),
+                            activeAtStart,
+                            rs.getLong("started"),
+                            expired,
+                            cancelled,
+                            activeAtStart > 0 ? (double) (expired + cancelled) / activeAtStart : null);
+                },
+                to.plusMonths(1).atDay(1), serviceName, start, start, to.atDay(1));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.user_subscription.repository;
+
+import com.example.user_subscription.model.SubscriptionOutboxEvent;
+import com.example.user_subscription.repository.projection.SubscriptionOutboxView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SubscriptionOutboxRepository extends JpaRepository<SubscriptionOutboxEvent, Long> {
+
+    /**
+     * Removes and returns up to {@code limit} of the oldest events. Rows locked by another
+     * relay are skipped, so several instances can drain the outbox at once; the rows come
+     * back if the surrounding transaction rolls back.
+     */
+    @Query(value = """
+        DELETE FROM subscription_outbox
+        WHERE id IN (
+            SELECT id FROM subscription_outbox
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING id AS "id", event_type AS "eventType", user_id AS "userId",
+                  subscription_id AS "subscriptionId", service_name AS "serviceName",
+                  occurred_at AS "occurredAt"
+        """, nativeQuery = true)
+    List<SubscriptionOutboxView> claimBatch(@Param("limit") int limit);
+}
@@ -0,0 +1,75 @@
+package com.example.user_subscription.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * DDL for the monthly partitions of {@code subscriptions}, named {@code subscriptions_pYYYYMM}
+ * and covering one calendar month of {@code start_date}. Creating or detaching a partition
+ * locks the parent table, so the methods that do it take a lock timeout and must run in a
+ * transaction: a busy table makes them fail and be retried later rather than queue traffic
+ * behind them.
+ */
+@Repository
+public class SubscriptionPartitionRepository {
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String PREFIX = "subscriptions_p";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubscriptionPartitionRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public List<YearMonth> findMonthlyPartitions() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'subscriptions'::regclass
+                          AND c.relname ~ '^subscriptions_p[0-9]{6}$'
+                        ORDER BY c.relname
+                        """, String.class).stream()
+                .map(name -> YearMonth.parse(name.substring(PREFIX.length()), SUFFIX))
+                .toList();
+    }
+
+    public void createPartition(YearMonth month, Duration lockTimeout) {
+        setLockTimeout(lockTimeout);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF subscriptions FOR VALUES FROM ('%s') TO ('%s')"
+                .formatted(name(month), month.atDay(1), month.plusMonths(1).atDay(1)));
+    }
+
+    public boolean isEmpty(YearMonth month) {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM %s)".formatted(name(month)), Boolean.class));
+    }
+
+    /**
+     * Detaches the partition and drops it if it is still empty once detached. Returns
+     * {@code false} when rows turned up, in which case the caller must roll back.
+     */
+    public boolean detachAndDropIfEmpty(YearMonth month, Duration lockTimeout) {
+        setLockTimeout(lockTimeout);
+        jdbcTemplate.execute("ALTER TABLE subscriptions DETACH PARTITION " + name(month));
+        if (!isEmpty(month)) {
+            return false;
+        }
+        jdbcTemplate.execute("DROP TABLE " + name(month));
+        return true;
+    }
+
+    private void setLockTimeout(Duration lockTimeout) {
+        jdbcTemplate.queryForList("SELECT set_config('lock_timeout', ?, true)", lockTimeout.toMillis() + "ms");
+    }
+
+    private static String name(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+}
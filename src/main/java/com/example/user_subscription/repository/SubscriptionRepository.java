@@ -1,38 +1,224 @@
 package com.example.user_subscription.repository;
 
+import com.example.user_subscription.dto.ServicePopularityDto;
+import com.example.user_subscription.dto.SubscriptionDto;
 import com.example.user_subscription.model.Subscription;
-import com.example.user_subscription.model.User;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import com.example.user_subscription.repository.projection.SubscriptionArchivedView;
+import com.example.user_subscription.repository.projection.SubscriptionExpiryKeyView;
+import com.example.user_subscription.repository.projection.SubscriptionKeyView;
+import com.example.user_subscription.repository.projection.SubscriptionOwnershipView;
+import com.example.user_subscription.repository.projection.SubscriptionVersionedRowView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
-    boolean existsByUserAndServiceName(User user, String serviceName);
+    /**
+     * The key is claimed in {@code subscription_keys} first, so a taken service yields an
+     * empty result, as {@code ON CONFLICT DO NOTHING} did before the table was partitioned.
+     */
+    @Query(value = """
+        WITH claimed AS (
+            INSERT INTO subscription_keys (user_id, service_name, subscription_id, start_date)
+            SELECT u.id, :serviceName, nextval('subscriptions_seq'), :startDate
+            FROM users u
+            WHERE u.id = :userId
+            ON CONFLICT (user_id, service_name) DO NOTHING
+            RETURNING subscription_id, user_id
+        ), inserted AS (
+            INSERT INTO subscriptions (id, service_name, start_date, end_date, user_id)
+            SELECT subscription_id, :serviceName, :startDate, CAST(:endDate AS date), user_id
+            FROM claimed
+            RETURNING id, service_name, start_date, end_date, user_id
+        ), bumped AS (
+            UPDATE users SET subscriptions_version = subscriptions_version + 1
+            WHERE id IN (SELECT user_id FROM inserted)
+        ), stats AS (
+            INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+            SELECT service_name, start_date, 1, 0, 0 FROM inserted WHERE start_date IS NOT NULL
+            UNION ALL
+            SELECT service_name, end_date, 0, 1, 0 FROM inserted WHERE start_date IS NOT NULL AND end_date IS NOT NULL
+        )
+        SELECT id FROM inserted
+        """, nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("userId") Long userId,
+                                  @Param("serviceName") String serviceName,
+                                  @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate);
 
-    @Query("SELECT s FROM Subscription s JOIN FETCH s.user WHERE s.user.id = :userId")
-    List<Subscription> findWithUserByUserId(@Param("userId") Long userId);
+    /**
+     * One row per subscription. A user without subscriptions yields a single row with null
+     * subscription fields; an unknown user yields no rows at all.
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        SELECT new com.example.user_subscription.dto.SubscriptionDto(s.id, s.serviceName, s.startDate, s.endDate, u.id)
+        FROM User u LEFT JOIN u.subscriptions s
+        WHERE u.id IN :userIds
+        ORDER BY u.id, s.id
+        """)
+    List<SubscriptionDto> findSubscriptionRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * The subscriptions of one user, each row carrying the user's subscriptions version, so
+     * the list and its ETag come from the same snapshot. Empty rows as above.
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        SELECT s.id AS id, s.serviceName AS serviceName, s.startDate AS startDate, s.endDate AS endDate,
+               u.id AS userId, u.subscriptionsVersion AS subscriptionsVersion
+        FROM User u LEFT JOIN u.subscriptions s
+        WHERE u.id = :userId
+        ORDER BY s.id
+        """)
+    List<SubscriptionVersionedRowView> findVersionedSubscriptionRowsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Also archives a running subscription as cancelled today and records the change in the
+     * analytics deltas; see {@link SubscriptionAnalyticsRepository} for the counting rules.
+     * The start date looked up from {@code subscription_keys} lets the delete touch only the
+     * partition holding the row.
+     */
+    @Query(value = """
+        WITH deleted AS (
+            DELETE FROM subscriptions
+            WHERE id = :subscriptionId AND user_id = :userId
+              AND start_date = (SELECT start_date FROM subscription_keys WHERE subscription_id = :subscriptionId)
+            RETURNING id, service_name, start_date, end_date, user_id
+        ), bumped AS (
+            UPDATE users SET subscriptions_version = subscriptions_version + 1
+            WHERE id IN (SELECT user_id FROM deleted)
+        ), archived AS (
+            INSERT INTO subscriptions_history (id, service_name, start_date, end_date, user_id, archived_at, cancelled_on)
+            SELECT id, service_name, start_date, end_date, user_id, now(),
+                   CASE WHEN end_date < CURRENT_DATE THEN NULL ELSE CURRENT_DATE END
+            FROM deleted
+            WHERE start_date <= CURRENT_DATE
+        ), stats AS (
+            INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+            SELECT service_name, start_date, -1, 0, 0 FROM deleted WHERE start_date > CURRENT_DATE
+            UNION ALL
+            SELECT service_name, end_date, 0, -1, 0 FROM deleted WHERE start_date IS NOT NULL AND end_date >= CURRENT_DATE
+            UNION ALL
+            SELECT service_name, CURRENT_DATE, 0, 0, 1 FROM deleted
+            WHERE start_date <= CURRENT_DATE AND (end_date IS NULL OR end_date >= CURRENT_DATE)
+        )
+        SELECT service_name FROM deleted
+        """, nativeQuery = true)
+    Optional<String> deleteByIdAndUserId(@Param("subscriptionId") Long subscriptionId,
+                                         @Param("userId") Long userId);
 
+    /**
+     * Analytics deltas for subscriptions that were saved as entities rather than by
+     * {@link #insertIfAbsent}, all started on {@code startDate}, which keeps the lookup in one partition.
+     */
     @Modifying
-    @Query("DELETE FROM Subscription s WHERE s.id = :subscriptionId AND s.user.id = :userId")
-    int deleteByIdAndUserId(@Param("subscriptionId") Long subscriptionId,
-                            @Param("userId") Long userId);
+    @Query(value = """
+        INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+        SELECT service_name, start_date, 1, 0, 0 FROM subscriptions WHERE id IN (:ids) AND start_date = :startDate
+        UNION ALL
+        SELECT service_name, end_date, 0, 1, 0 FROM subscriptions
+        WHERE id IN (:ids) AND start_date = :startDate AND end_date IS NOT NULL
+        """, nativeQuery = true)
+    int appendAddedStats(@Param("ids") Collection<Long> ids, @Param("startDate") LocalDate startDate);
+
+    @Query(value = """
+        SELECT EXISTS (SELECT 1 FROM users WHERE id = :userId) AS "userExists",
+               (SELECT user_id FROM subscription_keys WHERE subscription_id = :subscriptionId) AS "ownerId"
+        """, nativeQuery = true)
+    SubscriptionOwnershipView findOwnership(@Param("userId") Long userId,
+                                            @Param("subscriptionId") Long subscriptionId);
+
+    @Query(value = """
+        SELECT user_id AS "userId", service_name AS "serviceName"
+        FROM subscription_keys
+        WHERE user_id IN (:userIds) AND service_name IN (:serviceNames)
+        """, nativeQuery = true)
+    List<SubscriptionKeyView> findKeysByUserIdsAndServiceNames(@Param("userIds") Collection<Long> userIds,
+                                                               @Param("serviceNames") Collection<String> serviceNames);
+
+    /**
+     * One set-based statement however many subscriptions the user has. Removed rows are
+     * archived and counted exactly as in {@link #deleteByIdAndUserId}.
+     */
+    @Query(value = """
+        WITH deleted AS (
+            DELETE FROM subscriptions
+            WHERE user_id = :userId
+            RETURNING id, service_name, start_date, end_date, user_id
+        ), archived AS (
+            INSERT INTO subscriptions_history (id, service_name, start_date, end_date, user_id, archived_at, cancelled_on)
+            SELECT id, service_name, start_date, end_date, user_id, now(),
+                   CASE WHEN end_date < CURRENT_DATE THEN NULL ELSE CURRENT_DATE END
+            FROM deleted
+            WHERE start_date <= CURRENT_DATE
+        ), stats AS (
+            INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+            SELECT service_name, start_date, -1, 0, 0 FROM deleted WHERE start_date > CURRENT_DATE
+            UNION ALL
+            SELECT service_name, end_date, 0, -1, 0 FROM deleted WHERE start_date IS NOT NULL AND end_date >= CURRENT_DATE
+            UNION ALL
+            SELECT service_name, CURRENT_DATE, 0, 0, 1 FROM deleted
+            WHERE start_date <= CURRENT_DATE AND (end_date IS NULL OR end_date >= CURRENT_DATE)
+        )
+        SELECT service_name FROM deleted
+        """, nativeQuery = true)
+    List<String> deleteAllByUserIdReturningServiceName(@Param("userId") Long userId);
+
+    @Transactional(readOnly = true)
+    @Query("""
+        SELECT new com.example.user_subscription.dto.ServicePopularityDto(s.serviceName, COUNT(s.id))
+        FROM Subscription s
+        GROUP BY s.serviceName
+        """)
+    List<ServicePopularityDto> countSubscriptionsByServiceName();
+
+    @Query("""
+        SELECT s.id AS id, s.startDate AS startDate, s.endDate AS endDate
+        FROM Subscription s
+        WHERE s.endDate < :today
+        ORDER BY s.endDate, s.id
+        """)
+    List<SubscriptionExpiryKeyView> findExpiredKeys(@Param("today") LocalDate today, Limit limit);
 
     @Query("""
-        SELECT s.serviceName, COUNT(s.id) as count 
-        FROM Subscription s 
-        GROUP BY s.serviceName 
-        ORDER BY count DESC
+        SELECT s.id AS id, s.startDate AS startDate, s.endDate AS endDate
+        FROM Subscription s
+        WHERE s.endDate < :today
+          AND (s.endDate > :lastEndDate OR (s.endDate = :lastEndDate AND s.id > :lastId))
+        ORDER BY s.endDate, s.id
         """)
-    List<Object[]> findTop3PopularSubscriptions(Pageable pageable);
+    List<SubscriptionExpiryKeyView> findExpiredKeysAfter(@Param("today") LocalDate today,
+                                                         @Param("lastEndDate") LocalDate lastEndDate,
+                                                         @Param("lastId") Long lastId,
+                                                         Limit limit);
 
-    default List<Object[]> findTop3PopularSubscriptions() {
-        return findTop3PopularSubscriptions(PageRequest.of(0, 3));
-    }
+    /** {@code startDates} only narrows the partitions the delete has to look at. */
+    @Query(value = """
+        WITH expired AS (
+            DELETE FROM subscriptions
+            WHERE id IN (:ids) AND start_date IN (:startDates) AND end_date < :today
+            RETURNING id, service_name, start_date, end_date, user_id
+        ), bumped AS (
+            UPDATE users SET subscriptions_version = subscriptions_version + 1
+            WHERE id IN (SELECT id FROM users WHERE id IN (SELECT user_id FROM expired) ORDER BY id FOR UPDATE)
+        )
+        INSERT INTO subscriptions_history (id, service_name, start_date, end_date, user_id, archived_at)
+        SELECT id, service_name, start_date, end_date, user_id, now()
+        FROM expired
+        RETURNING id AS "id", user_id AS "userId", service_name AS "serviceName"
+        """, nativeQuery = true)
+    List<SubscriptionArchivedView> archiveExpired(@Param("ids") Collection<Long> ids,
+                                @Param("startDates") Collection<LocalDate> startDates,
+                                @Param("today") LocalDate today);
 }
@@ -1,10 +1,61 @@
 package com.example.user_subscription.repository;
 
+import com.example.user_subscription.dto.UserDto;
 import com.example.user_subscription.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.example.user_subscription.dto.UserDto(u.id, u.name, u.email, u.version) FROM User u WHERE u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.example.user_subscription.dto.UserDto(u.id, u.name, u.email, u.version) FROM User u WHERE u.id IN :ids")
+    List<UserDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query("""
+        SELECT new com.example.user_subscription.dto.UserDto(u.id, u.name, u.email, u.version)
+        FROM User u
+        WHERE u.id > :afterId
+        ORDER BY u.id
+        """)
+    List<UserDto> findDtoPage(@Param("afterId") Long afterId, Limit limit);
+
+    /** Bulk delete: never loads the user, so nothing cascades through its subscriptions collection. */
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteUser(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT u.subscriptionsVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findSubscriptionsVersionById(@Param("id") Long id);
+
+    /** Locks the users in id order first so that concurrent batches cannot deadlock. */
+    @Modifying
+    @Query(value = """
+        UPDATE users SET subscriptions_version = subscriptions_version + 1
+        WHERE id IN (SELECT id FROM users WHERE id IN (:userIds) ORDER BY id FOR UPDATE)
+        """, nativeQuery = true)
+    int incrementSubscriptionsVersions(@Param("userIds") Collection<Long> userIds);
 }
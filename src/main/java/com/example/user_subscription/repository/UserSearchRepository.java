@@ -0,0 +1,73 @@
+package com.example.user_subscription.repository;
+
+import com.example.user_subscription.dto.UserDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Case-insensitive prefix search over one column, keyset-paginated by (lowered value, id).
+ * Comparisons run in the "C" collation, so the matching index in V1__baseline.sql serves both
+ * the filter and the order. The range is given as explicit bounds rather than left to
+ * LIKE alone: a generic plan for the prepared statement cannot turn a parameterised
+ * LIKE into an index range, but it can use plain comparisons. The prefix is lowered by
+ * the same {@code lower()} as the indexed column, so both sides always fold case alike.
+ * The upper bound appends U+10FFFF, a noncharacter that never follows the prefix in a
+ * stored value; the LIKE keeps the match exact.
+ */
+@Repository
+public class UserSearchRepository {
+    private static final String SEARCH = """
+            SELECT id, name, email, version, lower(%1$s) AS search_key
+            FROM users
+            WHERE (lower(%1$s) COLLATE "C", id) > (lower(?) COLLATE "C", ?)
+              AND lower(%1$s) COLLATE "C" < (lower(?) || chr(1114111)) COLLATE "C"
+              AND lower(%1$s) COLLATE "C" LIKE lower(?)
+            ORDER BY lower(%1$s) COLLATE "C", id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSearchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @param prefix   prefix as typed, in any case; LIKE wildcards in it are matched literally
+     * @param afterKey search key of the last row already returned, or {@code null} for the first page
+     */
+    public List<Row> findByPrefix(Field field, String prefix, String afterKey, long afterId, int limit) {
+        return jdbcTemplate.query(field.sql, (rs, rowNum) -> new Row(
+                        new UserDto(rs.getLong("id"), rs.getString("name"), rs.getString("email"), rs.getLong("version")),
+                        rs.getString("search_key")),
+                afterKey == null ? prefix : afterKey, afterKey == null ? 0L : afterId,
+                prefix, escapeLike(prefix) + "%", limit);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    public enum Field {
+        EMAIL("email"),
+        NAME("name");
+
+        private final String sql;
+
+        Field(String column) {
+            this.sql = SEARCH.formatted(column);
+        }
+    }
+
+    public record Row(UserDto user, String key) {
+        /** The order of the index: key by code point, as the "C" collation compares UTF-8, then id. */
+        public static final Comparator<Row> KEY_ORDER = Comparator
+                .comparing((Row row) -> row.key().codePoints().toArray(), Arrays::compare)
+                .thenComparing(row -> row.user().getId());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.user_subscription.repository;
+
+import com.example.user_subscription.config.UserPaginationProperties;
+import com.example.user_subscription.dto.UserDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+/**
+ * Reads users through a server-side JDBC cursor. PostgreSQL only honours the fetch
+ * size inside a transaction, so every pass runs in a read-only one of its own.
+ */
+@Repository
+public class UserStreamRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserStreamRepository(DataSource dataSource, UserPaginationProperties paginationProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(paginationProperties.getStreamFetchSize());
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<UserDto> consumer) {
+        jdbcTemplate.query("SELECT id, name, email FROM users ORDER BY id", rs -> {
+            consumer.accept(new UserDto(rs.getLong("id"), rs.getString("name"), rs.getString("email")));
+        });
+    }
+}
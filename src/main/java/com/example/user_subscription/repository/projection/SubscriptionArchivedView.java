@@ -0,0 +1,7 @@
+package com.example.user_subscription.repository.projection;
+
+public interface SubscriptionArchivedView {
+    Long getId();
+    Long getUserId();
+    String getServiceName();
+}
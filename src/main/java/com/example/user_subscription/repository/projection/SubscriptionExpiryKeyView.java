@@ -0,0 +1,9 @@
+package com.example.user_subscription.repository.projection;
+
+import java.time.LocalDate;
+
+public interface SubscriptionExpiryKeyView {
+    Long getId();
+    LocalDate getStartDate();
+    LocalDate getEndDate();
+}
@@ -0,0 +1,6 @@
+package com.example.user_subscription.repository.projection;
+
+public interface SubscriptionKeyView {
+    Long getUserId();
+    String getServiceName();
+}
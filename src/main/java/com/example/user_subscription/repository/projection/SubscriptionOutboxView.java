@@ -0,0 +1,14 @@
+package com.example.user_subscription.repository.projection;
+
+import com.example.user_subscription.dto.SubscriptionEventType;
+
+import java.time.Instant;
+
+public interface SubscriptionOutboxView {
+    Long getId();
+    SubscriptionEventType getEventType();
+    Long getUserId();
+    Long getSubscriptionId();
+    String getServiceName();
+    Instant getOccurredAt();
+}
@@ -0,0 +1,12 @@
+package com.example.user_subscription.repository.projection;
+
+import java.time.LocalDate;
+
+public interface SubscriptionVersionedRowView {
+    Long getId();
+    String getServiceName();
+    LocalDate getStartDate();
+    LocalDate getEndDate();
+    Long getUserId();
+    Long getSubscriptionsVersion();
+}
@@ -0,0 +1,118 @@
+package com.example.user_subscription.repository.reactive;
+
+import com.example.user_subscription.model.reactive.SubscriptionOwnershipRow;
+import com.example.user_subscription.model.reactive.SubscriptionRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ReactiveSubscriptionRepository extends R2dbcRepository<SubscriptionRow, Long> {
+    @Query("""
+        WITH claimed AS (
+            INSERT INTO subscription_keys (user_id, service_name, subscription_id, start_date)
+            SELECT u.id, :serviceName, nextval('subscriptions_seq'), :startDate
+            FROM users u
+            WHERE u.id = :userId
+            ON CONFLICT (user_id, service_name) DO NOTHING
+            RETURNING subscription_id, user_id
+        ), inserted AS (
+            INSERT INTO subscriptions (id, service_name, start_date, end_date, user_id)
+            SELECT subscription_id, :serviceName, :startDate, CAST(:endDate AS date), user_id
+            FROM claimed
+            RETURNING id, service_name, start_date, end_date, user_id
+        ), bumped AS (
+            UPDATE users SET subscriptions_version = subscriptions_version + 1
+            WHERE id IN (SELECT user_id FROM inserted)
+        ), stats AS (
+            INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+            SELECT service_name, start_date, 1, 0, 0 FROM inserted WHERE start_date IS NOT NULL
+            UNION ALL
+            SELECT service_name, end_date, 0, 1, 0 FROM inserted WHERE start_date IS NOT NULL AND end_date IS NOT NULL
+        ), event AS (
+            INSERT INTO subscription_outbox (id, event_type, user_id, subscription_id, service_name, occurred_at)
+            SELECT nextval('subscription_outbox_seq'), 'SUBSCRIPTION_ADDED', user_id, id, service_name, now()
+            FROM inserted
+            WHERE CAST(:recordEvent AS boolean)
+        )
+        SELECT id FROM inserted
+        """)
+    Mono<Long> insertIfAbsent(@Param("userId") Long userId,
+                              @Param("serviceName") String serviceName,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("recordEvent") boolean recordEvent);
+
+    Flux<SubscriptionRow> findByUserId(Long userId);
+
+    @Query("""
+        WITH deleted AS (
+            DELETE FROM subscriptions
+            WHERE id = :subscriptionId AND user_id = :userId
+              AND start_date = (SELECT start_date FROM subscription_keys WHERE subscription_id = :subscriptionId)
+            RETURNING id, service_name, start_date, end_date, user_id
+        ), bumped AS (
+            UPDATE users SET subscriptions_version = subscriptions_version + 1
+            WHERE id IN (SELECT user_id FROM deleted)
+        ), archived AS (
+            INSERT INTO subscriptions_history (id, service_name, start_date, end_date, user_id, archived_at, cancelled_on)
+            SELECT id, service_name, start_date, end_date, user_id, now(),
+                   CASE WHEN end_date < CURRENT_DATE THEN NULL ELSE CURRENT_DATE END
+            FROM deleted
+            WHERE start_date <= CURRENT_DATE
+        ), stats AS (
+            INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+            SELECT service_name, start_date, -1, 0, 0 FROM deleted WHERE start_date > CURRENT_DATE
+            UNION ALL
+            SELECT service_name, end_date, 0, -1, 0 FROM deleted WHERE start_date IS NOT NULL AND end_date >= CURRENT_DATE
+            UNION ALL
+            SELECT service_name, CURRENT_DATE, 0, 0, 1 FROM deleted
+            WHERE start_date <= CURRENT_DATE AND (end_date IS NULL OR end_date >= CURRENT_DATE)
+        ), event AS (
+            INSERT INTO subscription_outbox (id, event_type, user_id, subscription_id, service_name, occurred_at)
+            SELECT nextval('subscription_outbox_seq'), 'SUBSCRIPTION_REMOVED', user_id, id, service_name, now()
+            FROM deleted
+            WHERE CAST(:recordEvent AS boolean)
+        )
+        SELECT service_name FROM deleted
+        """)
+    Mono<String> deleteByIdAndUserId(@Param("subscriptionId") Long subscriptionId,
+                                     @Param("userId") Long userId,
+                                     @Param("recordEvent") boolean recordEvent);
+
+    @Query("""
+        WITH deleted AS (
+            DELETE FROM subscriptions
+            WHERE user_id = :userId
+            RETURNING id, service_name, start_date, end_date, user_id
+        ), archived AS (
+            INSERT INTO subscriptions_history (id, service_name, start_date, end_date, user_id, archived_at, cancelled_on)
+            SELECT id, service_name, start_date, end_date, user_id, now(),
+                   CASE WHEN end_date < CURRENT_DATE THEN NULL ELSE CURRENT_DATE END
+            FROM deleted
+            WHERE start_date <= CURRENT_DATE
+        ), stats AS (
+            INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+            SELECT service_name, start_date, -1, 0, 0 FROM deleted WHERE start_date > CURRENT_DATE
+            UNION ALL
+            SELECT service_name, end_date, 0, -1, 0 FROM deleted WHERE start_date IS NOT NULL AND end_date >= CURRENT_DATE
+            UNION ALL
+            SELECT service_name, CURRENT_DATE, 0, 0, 1 FROM deleted
+            WHERE start_date <= CURRENT_DATE AND (end_date IS NULL OR end_date >= CURRENT_DATE)
+        )
+        SELECT service_name FROM deleted
+        """)
+    Flux<String> deleteAllByUserIdReturningServiceName(@Param("userId") Long userId);
+
+    @Query("""
+        SELECT EXISTS (SELECT 1 FROM users WHERE id = :userId) AS user_exists,
+               (SELECT user_id FROM subscription_keys WHERE subscription_id = :subscriptionId) AS owner_id
+        """)
+    Mono<SubscriptionOwnershipRow> findOwnership(@Param("userId") Long userId,
+                                                 @Param("subscriptionId") Long subscriptionId);
+}
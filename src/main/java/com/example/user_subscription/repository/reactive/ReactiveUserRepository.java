@@ -0,0 +1,38 @@
+package com.example.user_subscription.repository.reactive;
+
+import com.example.user_subscription.model.reactive.UserRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveUserRepository extends R2dbcRepository<UserRow, Long> {
+    Mono<Boolean> existsByEmail(String email);
+
+    @Query("INSERT INTO users (id, name, email) VALUES (nextval('users_seq'), :name, :email) RETURNING id")
+    Mono<Long> insert(@Param("name") String name, @Param("email") String email);
+
+    @Query("UPDATE users SET name = :name, email = :email, version = version + 1 WHERE id = :id RETURNING version")
+    Mono<Long> update(@Param("id") Long id, @Param("name") String name, @Param("email") String email);
+
+    @Query("""
+        WITH deleted AS (
+            DELETE FROM users WHERE id = :id RETURNING id
+        ), event AS (
+            INSERT INTO subscription_outbox (id, event_type, user_id, subscription_id, service_name, occurred_at)
+            SELECT nextval('subscription_outbox_seq'), 'USER_DELETED', id, NULL, NULL, now()
+            FROM deleted
+            WHERE CAST(:recordEvent AS boolean)
+        )
+        SELECT count(*) FROM deleted
+        """)
+    Mono<Long> deleteUser(@Param("id") Long id, @Param("recordEvent") boolean recordEvent);
+
+    @Query("SELECT id, name, email, version FROM users WHERE id > :cursor ORDER BY id LIMIT :limit")
+    Flux<UserRow> findPage(@Param("cursor") long cursor, @Param("limit") int limit);
+
+    Flux<UserRow> findAllByOrderByIdAsc();
+}
@@ -0,0 +1,15 @@
+package com.example.user_subscription.service;
+
+import com.example.user_subscription.dto.ServicePopularityDto;
+import com.example.user_subscription.dto.SubscriptionDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveSubscriptionService {
+    Mono<SubscriptionDto> addSubscription(Long userId, SubscriptionDto subscriptionDto);
+    Flux<SubscriptionDto> getUserSubscriptions(Long userId);
+    Mono<Void> deleteSubscription(Long userId, Long subscriptionId);
+    Mono<List<ServicePopularityDto>> getTopPopularSubscriptions(Integer limit);
+}
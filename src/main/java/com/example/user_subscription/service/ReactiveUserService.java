@@ -0,0 +1,15 @@
+package com.example.user_subscription.service;
+
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.dto.UserPageDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+    Mono<UserDto> createUser(UserDto userDto);
+    Mono<UserDto> getUserById(Long id);
+    Mono<UserDto> updateUser(Long id, UserDto userDto);
+    Mono<Void> deleteUser(Long id);
+    Mono<UserPageDto> getAllUsers(Long cursor, Integer size);
+    Flux<UserDto> streamAllUsers();
+}
@@ -0,0 +1,17 @@
+package com.example.user_subscription.service;
+
+import com.example.user_subscription.dto.MonthlyChurnDto;
+import com.example.user_subscription.dto.ServiceDailyStatsDto;
+import com.example.user_subscription.dto.SubscriptionStatusDto;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+public interface SubscriptionAnalyticsService {
+    List<ServiceDailyStatsDto> getDailyStats(String serviceName, LocalDate from, LocalDate to);
+    List<SubscriptionStatusDto> getStatusCounts(LocalDate date, String serviceName);
+    List<MonthlyChurnDto> getMonthlyChurn(YearMonth from, YearMonth to, String serviceName);
+    long foldDeltas();
+    int rebuild();
+}
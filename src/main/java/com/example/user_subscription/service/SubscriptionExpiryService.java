@@ -0,0 +1,7 @@
+package com.example.user_subscription.service;
+
+import java.time.LocalDate;
+
+public interface SubscriptionExpiryService {
+    long sweepExpired(LocalDate today);
+}
@@ -0,0 +1,11 @@
+package com.example.user_subscription.service;
+
+import com.example.user_subscription.dto.SubscriptionImportReportDto;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+public interface SubscriptionImportService {
+    SubscriptionImportReportDto importJson(Long userId, InputStream json);
+    SubscriptionImportReportDto importCsv(Long userId, Reader csv);
+}
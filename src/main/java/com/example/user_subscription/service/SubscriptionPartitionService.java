@@ -0,0 +1,9 @@
+package com.example.user_subscription.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface SubscriptionPartitionService {
+    List<YearMonth> createFuturePartitions(YearMonth current);
+    List<YearMonth> dropExpiredPartitions(YearMonth current);
+}
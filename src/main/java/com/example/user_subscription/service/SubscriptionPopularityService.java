@@ -0,0 +1,14 @@
+package com.example.user_subscription.service;
+
+import com.example.user_subscription.dto.ServicePopularityDto;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SubscriptionPopularityService {
+    void recordAdded(String serviceName);
+    void recordRemoved(String serviceName);
+    void recordRemoved(Collection<String> serviceNames);
+    List<ServicePopularityDto> getTopPopular(int limit);
+    void reconcile();
+}
@@ -1,12 +1,18 @@
 package com.example.user_subscription.service;
 
+import com.example.user_subscription.dto.ServicePopularityDto;
 import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.UserSubscriptionsLookupDto;
+import com.example.user_subscription.dto.VersionedSubscriptionsDto;
 
 import java.util.List;
 
 public interface SubscriptionService {
     SubscriptionDto addSubscription(Long userId, SubscriptionDto subscriptionDto);
     List<SubscriptionDto> getUserSubscriptions(Long userId);
+    VersionedSubscriptionsDto getVersionedUserSubscriptions(Long userId);
+    long getSubscriptionsVersion(Long userId);
+    UserSubscriptionsLookupDto getSubscriptionsForUsers(List<Long> userIds);
     void deleteSubscription(Long userId, Long subscriptionId);
-    List<Object[]> getTop3PopularSubscriptions();
+    List<ServicePopularityDto> getTopPopularSubscriptions(Integer limit);
 }
@@ -1,13 +1,22 @@
 package com.example.user_subscription.service;
 
 import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.dto.UserLookupDto;
+import com.example.user_subscription.dto.UserPageDto;
+import com.example.user_subscription.dto.UserSearchPageDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDto createUser(UserDto userDto);
     UserDto getUserById(Long id);
+    long getUserVersion(Long id);
+    UserLookupDto getUsersByIds(List<Long> ids);
     UserDto updateUser(Long id, UserDto userDto);
+    UserDto updateUser(Long id, UserDto userDto, Long expectedVersion);
     void deleteUser(Long id);
-    List<UserDto> getAllUsers();
+    UserPageDto getAllUsers(Long cursor, Integer size);
+    UserSearchPageDto searchUsers(String email, String name, String cursor, Integer size);
+    void streamAllUsers(Consumer<UserDto> consumer);
 }
@@ -0,0 +1,127 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionEventProperties;
+import com.example.user_subscription.config.SubscriptionPopularityProperties;
+import com.example.user_subscription.dto.ServicePopularityDto;
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionConflictException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionForbiddenException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.mapper.SubscriptionMapper;
+import com.example.user_subscription.model.reactive.SubscriptionOwnershipRow;
+import com.example.user_subscription.repository.reactive.ReactiveSubscriptionRepository;
+import com.example.user_subscription.repository.reactive.ReactiveUserRepository;
+import com.example.user_subscription.service.ReactiveSubscriptionService;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link SubscriptionServiceImpl}; every write is a single
+ * statement that also appends its outbox event, so no reactive transaction is opened.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveSubscriptionServiceImpl implements ReactiveSubscriptionService {
+    private final ReactiveSubscriptionRepository subscriptionRepository;
+    private final ReactiveUserRepository userRepository;
+    private final SubscriptionMapper subscriptionMapper;
+    private final SubscriptionPopularityService subscriptionPopularityService;
+    private final SubscriptionPopularityProperties popularityProperties;
+    private final SubscriptionEventProperties eventProperties;
+
+    @Override
+    public Mono<SubscriptionDto> addSubscription(Long userId, SubscriptionDto subscriptionDto) {
+        if (userId == null || userId <= 0) {
+            return Mono.error(UserIllegalArgumentException.INVALID_USER_ID);
+        }
+
+        if (subscriptionDto == null) {
+            return Mono.error(new UserIllegalArgumentException("Данные подписки не могут быть null"));
+        }
+
+        String serviceName = subscriptionDto.getServiceName();
+        LocalDate startDate = LocalDate.now();
+
+        return subscriptionRepository
+                .insertIfAbsent(userId, serviceName, startDate, subscriptionDto.getEndDate(), eventProperties.isEnabled())
+                .switchIfEmpty(Mono.defer(() -> userRepository.existsById(userId)
+                        .flatMap(userExists -> Mono.error(userExists
+                                ? new SubscriptionConflictException(
+                                        String.format("У пользователя уже есть подписка типа %s", serviceName))
+                                : new UserNotFoundException(
+                                        String.format("Пользователь с ID %d не найден", userId))))))
+                .doOnNext(subscriptionId -> subscriptionPopularityService.recordAdded(serviceName))
+                .map(subscriptionId -> new SubscriptionDto(
+                        subscriptionId, serviceName, startDate, subscriptionDto.getEndDate(), userId));
+    }
+
+    @Override
+    public Flux<SubscriptionDto> getUserSubscriptions(Long userId) {
+        if (userId == null || userId <= 0) {
+            return Flux.error(UserIllegalArgumentException.INVALID_USER_ID);
+        }
+
+        return userRepository.existsById(userId)
+                .flatMapMany(userExists -> userExists
+                        ? subscriptionRepository.findByUserId(userId).map(subscriptionMapper::toDto)
+                        : Flux.error(new UserNotFoundException("Пользователь с ID " + userId + " не найден")));
+    }
+
+    @Override
+    public Mono<Void> deleteSubscription(Long userId, Long subscriptionId) {
+        if (userId == null || userId <= 0) {
+            return Mono.error(new UserIllegalArgumentException("Неверный ID пользователя"));
+        }
+        if (subscriptionId == null || subscriptionId <= 0) {
+            return Mono.error(new UserIllegalArgumentException("Неверный ID подписки"));
+        }
+
+        return subscriptionRepository.deleteByIdAndUserId(subscriptionId, userId, eventProperties.isEnabled())
+                .doOnNext(serviceName -> {
+                    subscriptionPopularityService.recordRemoved(serviceName);
+                    log.info("Удалена подписка ID {} пользователя ID {}", subscriptionId, userId);
+                })
+                .switchIfEmpty(Mono.defer(() -> subscriptionRepository.findOwnership(userId, subscriptionId)
+                        .flatMap(ownership -> Mono.error(toDeleteFailure(ownership, userId, subscriptionId)))))
+                .then();
+    }
+
+    @Override
+    public Mono<List<ServicePopularityDto>> getTopPopularSubscriptions(Integer limit) {
+        int topLimit = limit == null ? popularityProperties.getDefaultLimit() : limit;
+        if (topLimit <= 0 || topLimit > popularityProperties.getMaxLimit()) {
+            return Mono.error(new SubscriptionIllegalArgumentException(
+                    String.format("Количество позиций должно быть от 1 до %d", popularityProperties.getMaxLimit())
+            ));
+        }
+
+        return Mono.fromSupplier(() -> subscriptionPopularityService.getTopPopular(topLimit));
+    }
+
+    private static RuntimeException toDeleteFailure(SubscriptionOwnershipRow ownership,
+                                                    Long userId, Long subscriptionId) {
+        if (!ownership.userExists()) {
+            return new UserNotFoundException(String.format("Пользователь с ID %d не найден", userId));
+        }
+
+        if (ownership.ownerId() == null) {
+            return new UserNotFoundException(String.format("Подписка с ID %d не найдена", subscriptionId));
+        }
+
+        return new SubscriptionForbiddenException(
+                String.format("Подписка %d не принадлежит пользователю %d", subscriptionId, userId)
+        );
+    }
+}
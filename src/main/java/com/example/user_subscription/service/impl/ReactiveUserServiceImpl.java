@@ -0,0 +1,138 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionEventProperties;
+import com.example.user_subscription.config.UserPaginationProperties;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.dto.UserPageDto;
+import com.example.user_subscription.exception.exceptions.user.*;
+import com.example.user_subscription.mapper.UserMapper;
+import com.example.user_subscription.repository.reactive.ReactiveSubscriptionRepository;
+import com.example.user_subscription.repository.reactive.ReactiveUserRepository;
+import com.example.user_subscription.service.ReactiveUserService;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link UserServiceImpl} on R2DBC. Validation and error
+ * messages are kept identical so both stacks answer the same way.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveSubscriptionRepository subscriptionRepository;
+    private final UserMapper userMapper;
+    private final SubscriptionPopularityService subscriptionPopularityService;
+    private final UserPaginationProperties paginationProperties;
+    private final SubscriptionEventProperties eventProperties;
+    private final TransactionalOperator transactionalOperator;
+
+    @Override
+    public Mono<UserDto> createUser(UserDto userDto) {
+        return userRepository.existsByEmail(userDto.getEmail())
+                .flatMap(exists -> exists
+                        ? Mono.<Long>error(new UserAlreadyExistsException(
+                                "Пользователь с email " + userDto.getEmail() + " уже существует"))
+                        : userRepository.insert(userDto.getName(), userDto.getEmail()))
+                .map(id -> new UserDto(id, userDto.getName(), userDto.getEmail(), 0L))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<UserDto> getUserById(Long id) {
+        if (id == null || id <= 0) {
+            return Mono.error(UserIllegalArgumentException.INVALID_USER_ID);
+        }
+
+        return userRepository.findById(id)
+                .map(userMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("Пользователь с id: " + id + " не найден")));
+    }
+
+    @Override
+    public Mono<UserDto> updateUser(Long id, UserDto userDto) {
+        if (id == null || id <= 0) {
+            return Mono.error(UserIllegalArgumentException.INVALID_USER_ID);
+        }
+
+        if (userDto == null) {
+            return Mono.error(new UserIllegalArgumentException("Данные пользователя не могут быть null"));
+        }
+
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(
+                        String.format("Пользователь с ID %d не найден", id))))
+                .flatMap(existing -> {
+                    String name = userDto.getName() != null ? userDto.getName() : existing.name();
+                    String email = userDto.getEmail() != null ? userDto.getEmail() : existing.email();
+                    Mono<Boolean> emailTaken = email.equals(existing.email())
+                            ? Mono.just(false)
+                            : userRepository.existsByEmail(email);
+                    return emailTaken.flatMap(taken -> taken
+                            ? Mono.error(new UserConflictException("Email " + email + " уже используется"))
+                            : userRepository.update(id, name, email).map(version -> new UserDto(id, name, email, version)));
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Void> deleteUser(Long id) {
+        if (id == null || id <= 0) {
+            return Mono.error(UserIllegalArgumentException.INVALID_USER_ID);
+        }
+
+        return subscriptionRepository.deleteAllByUserIdReturningServiceName(id)
+                .collectList()
+                .flatMap(serviceNames -> userRepository.deleteUser(id, eventProperties.isEnabled())
+                        .flatMap(deleted -> deleted == 0
+                                ? Mono.<List<String>>error(new UserNotFoundException(
+                                        "Пользователь с ID " + id + " не найден"))
+                                : Mono.just(serviceNames)))
+                .as(transactionalOperator::transactional)
+                .doOnNext(serviceNames -> {
+                    subscriptionPopularityService.recordRemoved(serviceNames);
+                    log.info("Пользователь с ID {} успешно удален", id);
+                })
+                .then();
+    }
+
+    @Override
+    public Mono<UserPageDto> getAllUsers(Long cursor, Integer size) {
+        if (cursor != null && cursor < 0) {
+            return Mono.error(new UserIllegalArgumentException("Курсор не может быть отрицательным"));
+        }
+
+        int pageSize = size == null ? paginationProperties.getDefaultPageSize() : size;
+        if (pageSize <= 0 || pageSize > paginationProperties.getMaxPageSize()) {
+            return Mono.error(new UserIllegalArgumentException(
+                    String.format("Размер страницы должен быть от 1 до %d", paginationProperties.getMaxPageSize())
+            ));
+        }
+
+        return userRepository.findPage(cursor == null ? 0L : cursor, pageSize + 1)
+                .map(userMapper::toDto)
+                .collectList()
+                .map(users -> {
+                    if (users.size() <= pageSize) {
+                        return new UserPageDto(users, null);
+                    }
+                    List<UserDto> page = users.subList(0, pageSize);
+                    return new UserPageDto(page, page.get(pageSize - 1).getId());
+                });
+    }
+
+    @Override
+    public Flux<UserDto> streamAllUsers() {
+        return userRepository.findAllByOrderByIdAsc().map(userMapper::toDto);
+    }
+}
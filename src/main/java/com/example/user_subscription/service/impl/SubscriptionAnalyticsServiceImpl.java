@@ -0,0 +1,180 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionAnalyticsProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.MonthlyChurnDto;
+import com.example.user_subscription.dto.ServiceDailyStatsDto;
+import com.example.user_subscription.dto.SubscriptionStatusDto;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.repository.SubscriptionAnalyticsRepository;
+import com.example.user_subscription.service.SubscriptionAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves {@code /analytics} from the daily rollups only. Deltas appended by subscription
+ * writes are folded in on a schedule, so figures trail writes by up to one fold interval.
+ * The rollups are rebuilt from the subscription tables on startup when they are empty.
+ * When sharded, every shard rolls up its own subscriptions and reads add the shards up.
+ */
+@Slf4j
+@Service
+public class SubscriptionAnalyticsServiceImpl implements SubscriptionAnalyticsService {
+    private final SubscriptionAnalyticsRepository analyticsRepository;
+    private final SubscriptionAnalyticsProperties analyticsProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public SubscriptionAnalyticsServiceImpl(SubscriptionAnalyticsRepository analyticsRepository,
+                                            SubscriptionAnalyticsProperties analyticsProperties,
+                                            PlatformTransactionManager transactionManager,
+                                            ShardRouter shardRouter) {
+        this.analyticsRepository = analyticsRepository;
+        this.analyticsProperties = analyticsProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ServiceDailyStatsDto> getDailyStats(String serviceName, LocalDate from, LocalDate to) {
+        if (serviceName == null || serviceName.isBlank()) {
+            throw new SubscriptionIllegalArgumentException("Название сервиса не может быть пустым");
+        }
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new SubscriptionIllegalArgumentException("Некорректный период: начало должно быть не позже конца");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= analyticsProperties.getMaxRangeDays()) {
+            throw new SubscriptionIllegalArgumentException(
+                    String.format("Период не может превышать %d дней", analyticsProperties.getMaxRangeDays())
+            );
+        }
+
+        List<List<ServiceDailyStatsDto>> shards = shardRouter.scatter(() ->
+                analyticsRepository.findDailyStats(serviceName, from, to));
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        Map<LocalDate, ServiceDailyStatsDto> days = new TreeMap<>();
+        shards.stream().flatMap(List::stream).forEach(day -> days.merge(day.getDay(), day, (a, b) ->
+                new ServiceDailyStatsDto(a.getDay(), a.getStarted() + b.getStarted(), a.getExpired() + b.getExpired(),
+                        a.getCancelled() + b.getCancelled(), a.getActive() + b.getActive())));
+        return new ArrayList<>(days.values());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SubscriptionStatusDto> getStatusCounts(LocalDate date, String serviceName) {
+        LocalDate day = date == null ? LocalDate.now() : date;
+        List<List<SubscriptionStatusDto>> shards = shardRouter.scatter(() ->
+                analyticsRepository.findStatusCounts(day, blankToNull(serviceName)));
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        Map<String, SubscriptionStatusDto> services = new TreeMap<>();
+        shards.stream().flatMap(List::stream).forEach(status -> services.merge(status.getServiceName(), status, (a, b) ->
+                new SubscriptionStatusDto(a.getServiceName(), a.getActive() + b.getActive(),
+                        a.getExpired() + b.getExpired(), a.getCancelled() + b.getCancelled())));
+        return new ArrayList<>(services.values());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MonthlyChurnDto> getMonthlyChurn(YearMonth from, YearMonth to, String serviceName) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new SubscriptionIllegalArgumentException("Некорректный период: начало должно быть не позже конца");
+        }
+        if (ChronoUnit.MONTHS.between(from, to) >= analyticsProperties.getMaxRangeMonths()) {
+            throw new SubscriptionIllegalArgumentException(
+                    String.format("Период не может превышать %d месяцев", analyticsProperties.getMaxRangeMonths())
+            );
+        }
+
+        List<List<MonthlyChurnDto>> shards = shardRouter.scatter(() ->
+                analyticsRepository.findMonthlyChurn(from, to, blankToNull(serviceName)));
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        Map<YearMonth, MonthlyChurnDto> months = new TreeMap<>();
+        shards.stream().flatMap(List::stream).forEach(month -> months.merge(month.getMonth(), month, (a, b) -> {
+            long activeAtStart = a.getActiveAtStart() + b.getActiveAtStart();
+            long expired = a.getExpired() + b.getExpired();
+            long cancelled = a.getCancelled() + b.getCancelled();
+            return new MonthlyChurnDto(a.getMonth(), activeAtStart, a.getStarted() + b.getStarted(), expired, cancelled,
+                    activeAtStart > 0 ? (double) (expired + cancelled) / activeAtStart : null);
+        }));
+        return new ArrayList<>(months.values());
+    }
+
+    /** Folds batches until the delta table is drained or the per-run cap is reached. */
+    @Override
+    @Scheduled(fixedDelayString = "${subscription.analytics.fold-interval-ms:5000}",
+            initialDelayString = "${subscription.analytics.fold-interval-ms:5000}")
+    public long foldDeltas() {
+        AtomicLong total = new AtomicLong();
+        shardRouter.forEachShard(() -> total.addAndGet(foldShardDeltas()));
+        return total.get();
+    }
+
+    private long foldShardDeltas() {
+        int batchSize = analyticsProperties.getFoldBatchSize();
+        long total = 0;
+        try {
+            for (int batch = 0; batch < analyticsProperties.getMaxBatchesPerRun(); batch++) {
+                Integer folded = transactionTemplate.execute(status -> analyticsRepository.fold(batchSize));
+                total += folded == null ? 0 : folded;
+                if (folded == null || folded < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось перенести изменения в сводную статистику подписок: {}", e.getMessage());
+        }
+        return total;
+    }
+
+    @Override
+    public int rebuild() {
+        AtomicInteger total = new AtomicInteger();
+        shardRouter.forEachShard(() -> total.addAndGet(rebuildShard()));
+        return total.get();
+    }
+
+    private int rebuildShard() {
+        Integer written = transactionTemplate.execute(status -> analyticsRepository.rebuild());
+        log.info("Сводная статистика подписок перестроена: {} строк", written);
+        return written == null ? 0 : written;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!analyticsProperties.isBackfillOnStartup()) {
+            return;
+        }
+        shardRouter.forEachShard(() -> {
+            if (analyticsRepository.isEmpty()) {
+                rebuildShard();
+            }
+        });
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
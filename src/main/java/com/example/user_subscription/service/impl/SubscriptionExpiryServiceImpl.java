@@ -0,0 +1,174 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionExpiryProperties;
+import com.example.user_subscription.config.Timeouts;
+import com.example.user_subscription.datasource.ShardContext;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
+import com.example.user_subscription.repository.SubscriptionRepository;
+import com.example.user_subscription.repository.projection.SubscriptionArchivedView;
+import com.example.user_subscription.repository.projection.SubscriptionExpiryKeyView;
+import com.example.user_subscription.service.SubscriptionExpiryService;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves subscriptions whose end date has passed into {@code subscriptions_history}.
+ * Expired keys are read in {@code (end_date, id)} order from the matching index and
+ * every batch is archived and deleted by one statement in its own short transaction,
+ * so row locks on the hot table are held only for a single batch. Batches run on a
+ * small pool and their start rate is capped; a failed batch is retried on the next run.
+ * Every archived subscription is recorded as removed in the outbox of its batch.
+ * When sharded, the scheduled run sweeps the shards one after another.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "subscription.expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SubscriptionExpiryServiceImpl implements SubscriptionExpiryService {
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionPopularityService subscriptionPopularityService;
+    private final SubscriptionEventRecorder subscriptionEventRecorder;
+    private final SubscriptionExpiryProperties expiryProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final ShardRouter shardRouter;
+
+    private final Counter archivedCounter;
+    private final Counter failedBatchCounter;
+    private final Timer batchTimer;
+    private final AtomicInteger inFlightBatches = new AtomicInteger();
+    private final AtomicLong currentRunArchived = new AtomicLong();
+
+    public SubscriptionExpiryServiceImpl(SubscriptionRepository subscriptionRepository,
+                                         SubscriptionPopularityService subscriptionPopularityService,
+                                         SubscriptionEventRecorder subscriptionEventRecorder,
+                                         SubscriptionExpiryProperties expiryProperties,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         ShardRouter shardRouter) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionPopularityService = subscriptionPopularityService;
+        this.subscriptionEventRecorder = subscriptionEventRecorder;
+        this.expiryProperties = expiryProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(Timeouts.wholeSeconds(expiryProperties.getBatchTimeout()));
+        this.executor = Executors.newFixedThreadPool(expiryProperties.getParallelism(),
+                Thread.ofPlatform().name("subscription-expiry-", 0).daemon().factory());
+        this.shardRouter = shardRouter;
+
+        this.archivedCounter = meterRegistry.counter("subscription.expiry.archived");
+        this.failedBatchCounter = meterRegistry.counter("subscription.expiry.batches.failed");
+        this.batchTimer = meterRegistry.timer("subscription.expiry.batch");
+        meterRegistry.gauge("subscription.expiry.batches.in_flight", inFlightBatches);
+        meterRegistry.gauge("subscription.expiry.run.archived", currentRunArchived);
+    }
+
+    @Scheduled(fixedDelayString = "${subscription.expiry.sweep-interval-ms:3600000}",
+            initialDelayString = "${subscription.expiry.sweep-interval-ms:3600000}")
+    public void scheduledSweep() {
+        LocalDate today = LocalDate.now();
+        shardRouter.forEachShard(() -> sweepExpired(today));
+    }
+
+    @Override
+    public long sweepExpired(LocalDate today) {
+        int batchSize = expiryProperties.getBatchSize();
+        long minBatchIntervalNanos = expiryProperties.getMaxBatchesPerSecond() > 0
+                ? (long) (1_000_000_000L / expiryProperties.getMaxBatchesPerSecond())
+                : 0;
+        Semaphore slots = new Semaphore(expiryProperties.getParallelism());
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        currentRunArchived.set(0);
+        long started = System.nanoTime();
+        long nextBatchAt = started;
+
+        List<SubscriptionExpiryKeyView> keys = subscriptionRepository.findExpiredKeys(today, Limit.of(batchSize));
+        while (!keys.isEmpty()) {
+            LockSupport.parkNanos(nextBatchAt - System.nanoTime());
+            nextBatchAt = Math.max(nextBatchAt, System.nanoTime()) + minBatchIntervalNanos;
+
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            List<Long> ids = keys.stream().map(SubscriptionExpiryKeyView::getId).toList();
+            List<LocalDate> startDates = keys.stream().map(SubscriptionExpiryKeyView::getStartDate).distinct().toList();
+            batches.add(CompletableFuture.runAsync(
+                            ShardContext.propagate(() -> archiveBatch(ids, startDates, today)), executor)
+                    .whenComplete((ignored, error) -> slots.release()));
+
+            if (keys.size() < batchSize) {
+                break;
+            }
+            SubscriptionExpiryKeyView last = keys.get(keys.size() - 1);
+            keys = subscriptionRepository.findExpiredKeysAfter(
+                    today, last.getEndDate(), last.getId(), Limit.of(batchSize));
+        }
+
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join();
+
+        long archived = currentRunArchived.get();
+        if (!batches.isEmpty()) {
+            log.info("Архивировано истекших подписок: {} за {} мс, пакетов: {}", archived,
+                    (System.nanoTime() - started) / 1_000_000, batches.size());
+        }
+        return archived;
+    }
+
+    private void archiveBatch(List<Long> ids, List<LocalDate> startDates, LocalDate today) {
+        inFlightBatches.incrementAndGet();
+        try {
+            Integer archived = batchTimer.record(() -> transactionTemplate.execute(status -> {
+                List<SubscriptionArchivedView> archivedRows =
+                        subscriptionRepository.archiveExpired(ids, startDates, today);
+                for (SubscriptionArchivedView row : archivedRows) {
+                    subscriptionEventRecorder.record(SubscriptionEventType.SUBSCRIPTION_REMOVED,
+                            row.getUserId(), row.getId(), row.getServiceName());
+                }
+                subscriptionPopularityService.recordRemoved(archivedRows.stream()
+                        .map(SubscriptionArchivedView::getServiceName)
+                        .toList());
+                return archivedRows.size();
+            }));
+            archivedCounter.increment(archived);
+            currentRunArchived.addAndGet(archived);
+        } catch (RuntimeException e) {
+            failedBatchCounter.increment();
+            log.warn("Не удалось архивировать пакет из {} подписок: {}", ids.size(), e.getMessage());
+            throw e;
+        } finally {
+            inFlightBatches.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pulls import rows one at a time from a JSON array or a CSV body, so the whole
+ * payload is never held in memory.
+ */
+interface SubscriptionImportReader {
+
+    SubscriptionImportRow next() throws IOException;
+
+    static SubscriptionImportReader json(ObjectMapper objectMapper, InputStream json) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(json);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new SubscriptionIllegalArgumentException("Ожидается JSON-массив подписок");
+        }
+
+        return new SubscriptionImportReader() {
+            private int row;
+
+            @Override
+            public SubscriptionImportRow next() throws IOException {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    parser.close();
+                    return null;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    return SubscriptionImportRow.invalid(++row, "Ожидается объект подписки");
+                }
+                // Read the element whole first, so that a field that does not map spoils only its own row.
+                JsonNode element = objectMapper.readTree(parser);
+                int current = ++row;
+                try {
+                    return SubscriptionImportRow.of(current, objectMapper.treeToValue(element, SubscriptionDto.class));
+                } catch (JsonProcessingException e) {
+                    return SubscriptionImportRow.invalid(current, "Неверные данные подписки");
+                }
+            }
+        };
+    }
+
+    static SubscriptionImportReader csv(Reader csv, boolean withUserId) {
+        BufferedReader reader = csv instanceof BufferedReader buffered ? buffered : new BufferedReader(csv);
+
+        return new SubscriptionImportReader() {
+            private int row;
+            private boolean firstLine = true;
+
+            @Override
+            public SubscriptionImportRow next() throws IOException {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    boolean header = firstLine && isHeader(line);
+                    firstLine = false;
+                    if (!header && !line.isBlank()) {
+                        return parse(++row, line, withUserId);
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static boolean isHeader(String line) {
+        List<String> columns = split(line);
+        if (columns == null) {
+            return false;
+        }
+        String firstColumn = columns.get(0).trim().toLowerCase();
+        return firstColumn.equals("userid") || firstColumn.equals("servicename");
+    }
+
+    private static SubscriptionImportRow parse(int row, String line, boolean withUserId) {
+        List<String> fields = split(line);
+        if (fields == null) {
+            return SubscriptionImportRow.invalid(row, "Незакрытая кавычка");
+        }
+        String[] columns = fields.toArray(String[]::new);
+        int expected = withUserId ? 3 : 2;
+        if (columns.length < expected - 1 || columns.length > expected) {
+            return SubscriptionImportRow.invalid(row, "Неверное количество колонок");
+        }
+
+        int offset = withUserId ? 1 : 0;
+        SubscriptionDto subscription = new SubscriptionDto();
+        try {
+            if (withUserId) {
+                subscription.setUserId(Long.parseLong(columns[0].trim()));
+            }
+            subscription.setServiceName(columns[offset].trim());
+            if (columns.length > offset + 1 && !columns[offset + 1].isBlank()) {
+                subscription.setEndDate(LocalDate.parse(columns[offset + 1].trim()));
+            }
+        } catch (NumberFormatException e) {
+            return SubscriptionImportRow.invalid(row, "Неверный ID пользователя");
+        } catch (DateTimeParseException e) {
+            return SubscriptionImportRow.invalid(row, "Неверная дата окончания");
+        }
+        return SubscriptionImportRow.of(row, subscription);
+    }
+
+    /**
+     * Splits one line as RFC 4180 does: a field may be quoted to hold commas, and a doubled
+     * quote inside it stands for one quote. Returns {@code null} for a quote left open,
+     * since quoted fields spanning lines are not supported.
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.dto.SubscriptionDto;
+
+record SubscriptionImportRow(int row, SubscriptionDto subscription, String error) {
+
+    static SubscriptionImportRow of(int row, SubscriptionDto subscription) {
+        return new SubscriptionImportRow(row, subscription, null);
+    }
+
+    static SubscriptionImportRow invalid(int row, String error) {
+        return new SubscriptionImportRow(row, null, error);
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionImportProperties;
+import com.example.user_subscription.datasource.ShardKey;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.dto.SubscriptionImportReportDto;
+import com.example.user_subscription.dto.SubscriptionImportResultDto;
+import com.example.user_subscription.dto.SubscriptionImportStatus;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.model.Subscription;
+import com.example.user_subscription.repository.SubscriptionRepository;
+import com.example.user_subscription.repository.UserRepository;
+import com.example.user_subscription.repository.projection.SubscriptionKeyView;
+import com.example.user_subscription.service.SubscriptionImportService;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports subscriptions in chunks: every chunk is validated, checked against the
+ * database with two set-based queries and written in its own transaction using
+ * Hibernate JDBC batching, together with an outbox event per created subscription, so
+ * earlier chunks stay committed if a later one fails. A body that turns unreadable or
+ * runs past the row limit is rejected while nothing is saved yet; after that the rows
+ * read so far are imported and the report comes back marked as aborted.
+ * When sharded, a chunk is written as one transaction per shard its users live on.
+ */
+@Slf4j
+@Service
+public class SubscriptionImportServiceImpl implements SubscriptionImportService {
+    private final SubscriptionRepository subscriptionRepository;
+    private final UserRepository userRepository;
+    private final SubscriptionPopularityService subscriptionPopularityService;
+    private final SubscriptionEventRecorder subscriptionEventRecorder;
+    private final SubscriptionImportProperties importProperties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public SubscriptionImportServiceImpl(SubscriptionRepository subscriptionRepository,
+                                         UserRepository userRepository,
+                                         SubscriptionPopularityService subscriptionPopularityService,
+                                         SubscriptionEventRecorder subscriptionEventRecorder,
+                                         SubscriptionImportProperties importProperties,
+                                         ObjectMapper objectMapper,
+                                         Validator validator,
+                                         EntityManager entityManager,
+                                         PlatformTransactionManager transactionManager,
+                                         ShardRouter shardRouter) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.userRepository = userRepository;
+        this.subscriptionPopularityService = subscriptionPopularityService;
+        this.subscriptionEventRecorder = subscriptionEventRecorder;
+        this.importProperties = importProperties;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public SubscriptionImportReportDto importJson(@ShardKey Long userId, InputStream json) {
+        checkUser(userId);
+        try {
+            return importRows(userId, SubscriptionImportReader.json(objectMapper, json), "Некорректный JSON: ");
+        } catch (IOException e) {
+            throw new SubscriptionIllegalArgumentException("Некорректный JSON: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public SubscriptionImportReportDto importCsv(@ShardKey Long userId, Reader csv) {
+        checkUser(userId);
+        return importRows(userId, SubscriptionImportReader.csv(csv, userId == null), "Не удалось прочитать CSV: ");
+    }
+
+    private void checkUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (userId <= 0) {
+            throw UserIllegalArgumentException.INVALID_USER_ID;
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(String.format("Пользователь с ID %d не найден", userId));
+        }
+    }
+
+    private SubscriptionImportReportDto importRows(Long userId, SubscriptionImportReader reader, String readError) {
+        List<SubscriptionImportResultDto> results = new ArrayList<>();
+        List<SubscriptionImportRow> chunk = new ArrayList<>(importProperties.getChunkSize());
+        String abortReason = null;
+
+        while (abortReason == null) {
+            SubscriptionImportRow row;
+            try {
+                row = reader.next();
+            } catch (IOException e) {
+                abortReason = readError + e.getMessage();
+                break;
+            }
+            if (row == null) {
+                break;
+            }
+            if (row.row() > importProperties.getMaxRows()) {
+                abortReason = String.format("Превышено максимальное количество строк: %d", importProperties.getMaxRows());
+                break;
+            }
+            if (userId != null && row.subscription() != null) {
+                row.subscription().setUserId(userId);
+            }
+            chunk.add(row);
+            if (chunk.size() == importProperties.getChunkSize()) {
+                results.addAll(importChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (abortReason != null && results.isEmpty()) {
+            throw new SubscriptionIllegalArgumentException(abortReason);
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk));
+        }
+
+        int created = (int) results.stream()
+                .filter(result -> result.getStatus() == SubscriptionImportStatus.CREATED)
+                .count();
+        if (abortReason != null) {
+            log.warn("Импорт подписок прерван после строки {}: {}", results.size(), abortReason);
+        }
+        log.info("Импорт подписок завершен: создано {} из {}", created, results.size());
+        return new SubscriptionImportReportDto(results.size(), created, results.size() - created, results,
+                abortReason != null, abortReason);
+    }
+
+    private List<SubscriptionImportResultDto> importChunk(List<SubscriptionImportRow> chunk) {
+        Map<Integer, SubscriptionImportResultDto> results = new HashMap<>();
+        List<SubscriptionImportRow> valid = new ArrayList<>();
+        for (SubscriptionImportRow row : chunk) {
+            String error = validate(row);
+            if (error != null) {
+                results.put(row.row(), failure(row, SubscriptionImportStatus.INVALID, error));
+            } else {
+                valid.add(row);
+            }
+        }
+
+        shardRouter.groupByShard(valid, row -> row.subscription().getUserId()).forEach((shard, rows) ->
+                shardRouter.runOn(shard, () -> {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> write(rows, results));
+                    } catch (DataAccessException e) {
+                        log.error("Ошибка при импорте пакета подписок: {}", e.getMessage());
+                        rows.forEach(row -> results.put(row.row(),
+                                failure(row, SubscriptionImportStatus.FAILED, "Ошибка при сохранении пакета")));
+                    }
+                }));
+
+        return chunk.stream()
+                .map(row -> results.get(row.row()))
+                .collect(Collectors.toList());
+    }
+
+    private void write(List<SubscriptionImportRow> rows, Map<Integer, SubscriptionImportResultDto> results) {
+        Set<Long> userIds = rows.stream()
+                .map(row -> row.subscription().getUserId())
+                .collect(Collectors.toSet());
+        Set<String> serviceNames = rows.stream()
+                .map(row -> row.subscription().getServiceName())
+                .collect(Collectors.toSet());
+
+        Set<Long> existingUsers = new HashSet<>(userRepository.findExistingIds(userIds));
+        Set<String> takenKeys = subscriptionRepository.findKeysByUserIdsAndServiceNames(userIds, serviceNames)
+                .stream()
+                .map(key -> key(key.getUserId(), key.getServiceName()))
+                .collect(Collectors.toCollection(HashSet::new));
+
+        LocalDate today = LocalDate.now();
+        Map<Integer, Subscription> created = new LinkedHashMap<>();
+        for (SubscriptionImportRow row : rows) {
+            SubscriptionDto dto = row.subscription();
+            if (!existingUsers.contains(dto.getUserId())) {
+                results.put(row.row(), failure(row, SubscriptionImportStatus.USER_NOT_FOUND,
+                        String.format("Пользователь с ID %d не найден", dto.getUserId())));
+            } else if (!takenKeys.add(key(dto.getUserId(), dto.getServiceName()))) {
+                results.put(row.row(), failure(row, SubscriptionImportStatus.DUPLICATE,
+                        String.format("У пользователя уже есть подписка типа %s", dto.getServiceName())));
+            } else {
+                created.put(row.row(), new Subscription(null, dto.getServiceName(), today, dto.getEndDate(),
+                        userRepository.getReferenceById(dto.getUserId())));
+            }
+        }
+
+        subscriptionRepository.saveAll(created.values());
+        for (Subscription subscription : created.values()) {
+            subscriptionEventRecorder.record(SubscriptionEventType.SUBSCRIPTION_ADDED,
+                    subscription.getUser().getId(), subscription.getId(), subscription.getServiceName());
+        }
+        entityManager.flush();
+        if (!created.isEmpty()) {
+            userRepository.incrementSubscriptionsVersions(created.values().stream()
+                    .map(subscription -> subscription.getUser().getId())
+                    .collect(Collectors.toSet()));
+            subscriptionRepository.appendAddedStats(created.values().stream()
+                    .map(Subscription::getId)
+                    .toList(), today);
+        }
+        entityManager.clear();
+
+        created.forEach((row, subscription) -> {
+            results.put(row, new SubscriptionImportResultDto(
+                    row, SubscriptionImportStatus.CREATED, subscription.getId(), null));
+            subscriptionPopularityService.recordAdded(subscription.getServiceName());
+        });
+    }
+
+    private String validate(SubscriptionImportRow row) {
+        if (row.error() != null) {
+            return row.error();
+        }
+        SubscriptionDto dto = row.subscription();
+        if (dto.getUserId() == null || dto.getUserId() <= 0) {
+            return "ID пользователя должно быть положительным числом";
+        }
+        Set<ConstraintViolation<SubscriptionDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        return null;
+    }
+
+    private static SubscriptionImportResultDto failure(SubscriptionImportRow row,
+                                                       SubscriptionImportStatus status,
+                                                       String message) {
+        return new SubscriptionImportResultDto(row.row(), status, null, message);
+    }
+
+    private static String key(Long userId, String serviceName) {
+        return userId + ":" + serviceName;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionPartitionProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.repository.SubscriptionPartitionRepository;
+import com.example.user_subscription.service.SubscriptionPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps monthly partitions of {@code subscriptions} created ahead of the current month, so
+ * new rows never land in the default partition, and drops partitions older than the
+ * retention period. The expiry sweeper moves finished subscriptions to history, so an old
+ * partition still holding rows holds live subscriptions; such partitions are left attached.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "subscription.partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SubscriptionPartitionServiceImpl implements SubscriptionPartitionService {
+    private final SubscriptionPartitionRepository partitionRepository;
+    private final SubscriptionPartitionProperties partitionProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public SubscriptionPartitionServiceImpl(SubscriptionPartitionRepository partitionRepository,
+                                            SubscriptionPartitionProperties partitionProperties,
+                                            PlatformTransactionManager transactionManager,
+                                            ShardRouter shardRouter) {
+        this.partitionRepository = partitionRepository;
+        this.partitionProperties = partitionProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${subscription.partitions.maintenance-interval-ms:21600000}",
+            initialDelayString = "${subscription.partitions.maintenance-interval-ms:21600000}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        shardRouter.forEachShard(() -> {
+            createFuturePartitions(current);
+            dropExpiredPartitions(current);
+        });
+    }
+
+    @Override
+    public List<YearMonth> createFuturePartitions(YearMonth current) {
+        Set<YearMonth> existing = new HashSet<>(partitionRepository.findMonthlyPartitions());
+        List<YearMonth> created = new ArrayList<>();
+        for (int i = 0; i <= partitionProperties.getMonthsAhead(); i++) {
+            YearMonth month = current.plusMonths(i);
+            if (existing.contains(month)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        partitionRepository.createPartition(month, partitionProperties.getLockTimeout()));
+                created.add(month);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось создать раздел подписок за {}: {}", month, e.getMessage());
+            }
+        }
+        if (!created.isEmpty()) {
+            log.info("Созданы разделы подписок: {}", created);
+        }
+        return created;
+    }
+
+    @Override
+    public List<YearMonth> dropExpiredPartitions(YearMonth current) {
+        YearMonth oldestKept = current.minusMonths(partitionProperties.getRetentionMonths());
+        List<YearMonth> dropped = new ArrayList<>();
+        for (YearMonth month : partitionRepository.findMonthlyPartitions()) {
+            if (!month.isBefore(oldestKept) || !partitionRepository.isEmpty(month)) {
+                continue;
+            }
+            try {
+                Boolean done = transactionTemplate.execute(status -> {
+                    if (partitionRepository.detachAndDropIfEmpty(month, partitionProperties.getLockTimeout())) {
+                        return true;
+                    }
+                    status.setRollbackOnly();
+                    return false;
+                });
+                if (Boolean.TRUE.equals(done)) {
+                    dropped.add(month);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Не удалось отсоединить раздел подписок за {}: {}", month, e.getMessage());
+            }
+        }
+        if (!dropped.isEmpty()) {
+            log.info("Отсоединены и удалены пустые разделы подписок: {}", dropped);
+        }
+        return dropped;
+    }
+}
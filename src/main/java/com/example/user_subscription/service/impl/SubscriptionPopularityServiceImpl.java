@@ -0,0 +1,260 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionPopularityProperties;
+import com.example.user_subscription.datasource.ShardContext;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.ServicePopularityDto;
+import com.example.user_subscription.model.ServicePopularity;
+import com.example.user_subscription.repository.ServicePopularityRepository;
+import com.example.user_subscription.repository.SubscriptionRepository;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps per-service subscription counters in memory so that the top-N query never
+ * aggregates the subscriptions table. Deltas are applied after commit and flushed
+ * into {@code service_popularity} by {@link #reconcile()}, which also reloads the
+ * persisted totals to pick up changes made by other instances. When sharded, the totals
+ * are the sum over all shards: each shard is seeded from its own subscriptions, only
+ * when no shard has totals yet, and later deltas are all flushed to the first shard.
+ * <p>
+ * A shard is seeded with its subscription writes locked out, and the seed moves that
+ * shard to a new epoch once it has committed. Every delta carries the epoch of its shard
+ * from the moment the write ran, so deltas of writes the seed has already counted are
+ * dropped rather than counted twice. The lock is PostgreSQL's; other databases, such as
+ * the H2 of the JMH benchmarks, run with {@code subscription.popularity.seed-on-startup} off.
+ */
+@Slf4j
+@Service
+public class SubscriptionPopularityServiceImpl implements SubscriptionPopularityService {
+    private static final Comparator<ServicePopularityDto> BY_COUNT =
+            Comparator.comparing(ServicePopularityDto::getCount)
+                    .thenComparing(ServicePopularityDto::getServiceName, Comparator.reverseOrder());
+    private static final int UNBOUND_SHARD = 0;
+
+    private final ServicePopularityRepository servicePopularityRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final SubscriptionPopularityProperties properties;
+
+    private final ConcurrentHashMap<String, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final AtomicIntegerArray epochs;
+    private final ReadWriteLock epochLock = new ReentrantReadWriteLock();
+    /** Deltas applied per shard before that shard was seeded; {@code null} once seeding is over. */
+    private volatile ConcurrentHashMap<Integer, ConcurrentHashMap<String, LongAdder>> unseededDeltas =
+            new ConcurrentHashMap<>();
+
+    public SubscriptionPopularityServiceImpl(ServicePopularityRepository servicePopularityRepository,
+                                             SubscriptionRepository subscriptionRepository,
+                                             PlatformTransactionManager transactionManager,
+                                             ShardRouter shardRouter,
+                                             SubscriptionPopularityProperties properties) {
+        this.servicePopularityRepository = servicePopularityRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.epochs = new AtomicIntegerArray(shardRouter.shardCount());
+    }
+
+    @Override
+    public void recordAdded(String serviceName) {
+        int shard = currentShard();
+        int epoch = currentEpoch(shard);
+        afterCommit(() -> apply(shard, epoch, serviceName, 1));
+    }
+
+    @Override
+    public void recordRemoved(String serviceName) {
+        int shard = currentShard();
+        int epoch = currentEpoch(shard);
+        afterCommit(() -> apply(shard, epoch, serviceName, -1));
+    }
+
+    @Override
+    public void recordRemoved(Collection<String> serviceNames) {
+        if (serviceNames.isEmpty()) {
+            return;
+        }
+        List<String> names = List.copyOf(serviceNames);
+        int shard = currentShard();
+        int epoch = currentEpoch(shard);
+        afterCommit(() -> names.forEach(name -> apply(shard, epoch, name, -1)));
+    }
+
+    @Override
+    public List<ServicePopularityDto> getTopPopular(int limit) {
+        PriorityQueue<ServicePopularityDto> heap = new PriorityQueue<>(limit + 1, BY_COUNT);
+        counters.forEach((serviceName, counter) -> {
+            long count = counter.sum();
+            if (count <= 0) {
+                return;
+            }
+            ServicePopularityDto candidate = new ServicePopularityDto(serviceName, count);
+            if (heap.size() < limit) {
+                heap.add(candidate);
+            } else if (BY_COUNT.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        });
+
+        List<ServicePopularityDto> top = new ArrayList<>(heap);
+        top.sort(BY_COUNT.reversed());
+        return top;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (properties.isSeedOnStartup()
+                && shardRouter.scatter(servicePopularityRepository::count).stream().allMatch(count -> count == 0)) {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                int seeded = shard;
+                shardRouter.runOn(shard, () -> transactionTemplate.executeWithoutResult(status -> seed(seeded)));
+            }
+        }
+        unseededDeltas = null;
+        reload();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${subscription.popularity.reconcile-interval-ms:30000}",
+            initialDelayString = "${subscription.popularity.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        Map<String, Long> drained = new HashMap<>();
+        pendingDeltas.forEach((serviceName, delta) -> {
+            long value = delta.sumThenReset();
+            if (value != 0) {
+                drained.put(serviceName, value);
+            }
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    drained.forEach(servicePopularityRepository::addToCount));
+        } catch (RuntimeException e) {
+            drained.forEach((serviceName, delta) -> pending(serviceName).add(delta));
+            log.error("Не удалось сохранить счетчики популярности: {}", e.getMessage());
+            return;
+        }
+
+        reload();
+    }
+
+    private void seed(int shard) {
+        servicePopularityRepository.lockForSeeding();
+        if (servicePopularityRepository.count() > 0) {
+            log.info("Счетчики популярности шарда {} уже построены другим экземпляром", shard);
+            return;
+        }
+        List<ServicePopularity> seed = subscriptionRepository.countSubscriptionsByServiceName().stream()
+                .map(dto -> new ServicePopularity(dto.getServiceName(), dto.getCount()))
+                .toList();
+        servicePopularityRepository.saveAll(seed);
+
+        // Held until the seed completes: writes the lock released read the new epoch, and a
+        // seed that fails to commit leaves the epoch and the deltas as they were.
+        epochLock.writeLock().lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                epochs.incrementAndGet(shard);
+                ConcurrentHashMap<String, LongAdder> counted = unseededDeltas.remove(shard);
+                if (counted != null) {
+                    counted.forEach((serviceName, delta) -> pending(serviceName).add(-delta.sum()));
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                epochLock.writeLock().unlock();
+            }
+        });
+        log.info("Счетчики популярности построены по таблице подписок: {} сервисов", seed.size());
+    }
+
+    private void reload() {
+        ConcurrentHashMap<String, LongAdder> reloaded = new ConcurrentHashMap<>();
+        for (List<ServicePopularity> shard : shardRouter.scatter(servicePopularityRepository::findAll)) {
+            for (ServicePopularity popularity : shard) {
+                reloaded.computeIfAbsent(popularity.getServiceName(), key -> new LongAdder())
+                        .add(popularity.getSubscriptionCount());
+            }
+        }
+        pendingDeltas.forEach((serviceName, delta) ->
+                reloaded.computeIfAbsent(serviceName, key -> new LongAdder()).add(delta.sum()));
+        counters = reloaded;
+    }
+
+    private void apply(int shard, int epoch, String serviceName, long delta) {
+        epochLock.readLock().lock();
+        try {
+            if (epochs.get(shard) != epoch) {
+                return;
+            }
+            counters.computeIfAbsent(serviceName, key -> new LongAdder()).add(delta);
+            pending(serviceName).add(delta);
+            ConcurrentHashMap<Integer, ConcurrentHashMap<String, LongAdder>> unseeded = unseededDeltas;
+            if (unseeded != null) {
+                unseeded.computeIfAbsent(shard, key -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(serviceName, key -> new LongAdder()).add(delta);
+            }
+        } finally {
+            epochLock.readLock().unlock();
+        }
+    }
+
+    private int currentEpoch(int shard) {
+        epochLock.readLock().lock();
+        try {
+            return epochs.get(shard);
+        } finally {
+            epochLock.readLock().unlock();
+        }
+    }
+
+    private static int currentShard() {
+        Integer shard = ShardContext.current();
+        return shard == null ? UNBOUND_SHARD : shard;
+    }
+
+    private LongAdder pending(String serviceName) {
+        return pendingDeltas.computeIfAbsent(serviceName, key -> new LongAdder());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,87 +1,168 @@
 package com.example.user_subscription.service.impl;
 
+import com.example.user_subscription.config.SubscriptionPopularityProperties;
+import com.example.user_subscription.config.UserLookupProperties;
+import com.example.user_subscription.datasource.ShardKey;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.ServicePopularityDto;
 import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.dto.UserSubscriptionsDto;
+import com.example.user_subscription.dto.UserSubscriptionsLookupDto;
+import com.example.user_subscription.dto.VersionedSubscriptionsDto;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
 import com.example.user_subscription.exception.exceptions.subscription.SubscriptionConflictException;
 import com.example.user_subscription.exception.exceptions.subscription.SubscriptionForbiddenException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
 import com.example.user_subscription.exception.exceptions.user.UserIllegalArgumentException;
 import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
-import com.example.user_subscription.mapper.SubscriptionMapper;
-import com.example.user_subscription.model.Subscription;
-import com.example.user_subscription.model.User;
 import com.example.user_subscription.repository.SubscriptionRepository;
 import com.example.user_subscription.repository.UserRepository;
+import com.example.user_subscription.repository.projection.SubscriptionOwnershipView;
+import com.example.user_subscription.repository.projection.SubscriptionVersionedRowView;
+import com.example.user_subscription.service.SubscriptionPopularityService;
 import com.example.user_subscription.service.SubscriptionService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SubscriptionServiceImpl implements SubscriptionService {
+    private static final String DELETE_STATEMENTS_METRIC = "subscription.delete.statements";
+
     private final SubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
-    private final SubscriptionMapper subscriptionMapper;
+    private final SubscriptionPopularityService subscriptionPopularityService;
+    private final SubscriptionEventRecorder subscriptionEventRecorder;
+    private final SubscriptionPopularityProperties popularityProperties;
+    private final UserLookupProperties lookupProperties;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+
     @Override
     @Transactional()
-    public SubscriptionDto addSubscription(Long userId, SubscriptionDto subscriptionDto) {
+    public SubscriptionDto addSubscription(@ShardKey Long userId, SubscriptionDto subscriptionDto) {
         if (userId == null || userId <= 0) {
-            throw new UserIllegalArgumentException("ID пользователя должно быть положительным числом");
+            throw UserIllegalArgumentException.INVALID_USER_ID;
         }
 
         if (subscriptionDto == null) {
             throw new UserIllegalArgumentException("Данные подписки не могут быть null");
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(
-                        String.format("Пользователь с ID %d не найден", userId)
-                ));
-
-        if (subscriptionRepository.existsByUserAndServiceName(user, subscriptionDto.getServiceName())) {
-            throw new SubscriptionConflictException(
-                    String.format("У пользователя уже есть подписка типа %s", subscriptionDto.getServiceName())
-            );
-        }
+        String serviceName = subscriptionDto.getServiceName();
+        LocalDate startDate = LocalDate.now();
 
-        Subscription subscription = subscriptionMapper.toSubscription(subscriptionDto);
-        subscription.setUser(user);
-        subscription.setStartDate(LocalDate.now());
-        subscription.setEndDate(subscriptionDto.getEndDate());
-        subscription.setServiceName(subscriptionDto.getServiceName());
+        Long subscriptionId = subscriptionRepository
+                .insertIfAbsent(userId, serviceName, startDate, subscriptionDto.getEndDate())
+                .orElseThrow(() -> userRepository.existsById(userId)
+                        ? new SubscriptionConflictException(
+                                String.format("У пользователя уже есть подписка типа %s", serviceName))
+                        : new UserNotFoundException(
+                                String.format("Пользователь с ID %d не найден", userId)));
 
-        subscriptionRepository.save(subscription);
+        subscriptionEventRecorder.record(SubscriptionEventType.SUBSCRIPTION_ADDED, userId, subscriptionId, serviceName);
+        subscriptionPopularityService.recordAdded(serviceName);
 
-        userRepository.save(user);
+        return new SubscriptionDto(subscriptionId, serviceName, startDate, subscriptionDto.getEndDate(), userId);
+    }
 
-        return subscriptionMapper.toDto(subscription);
+    @Override
+    public List<SubscriptionDto> getUserSubscriptions(@ShardKey Long userId) {
+        return getVersionedUserSubscriptions(userId).getSubscriptions();
     }
 
     @Override
-    public List<SubscriptionDto> getUserSubscriptions(Long userId) {
+    public VersionedSubscriptionsDto getVersionedUserSubscriptions(@ShardKey Long userId) {
         if (userId == null || userId <= 0) {
-            throw new UserIllegalArgumentException("ID пользователя должно быть положительным числом");
+            throw UserIllegalArgumentException.INVALID_USER_ID;
         }
 
-        if (!userRepository.existsById(userId)) {
+        List<SubscriptionVersionedRowView> rows = subscriptionRepository.findVersionedSubscriptionRowsByUserId(userId);
+        if (rows.isEmpty()) {
             throw new UserNotFoundException("Пользователь с ID " + userId + " не найден");
         }
 
-        List<Subscription> subscriptions = subscriptionRepository.findWithUserByUserId(userId);
-
-        return subscriptions.stream()
-                .map(subscriptionMapper::toDto)
+        List<SubscriptionDto> subscriptions = rows.stream()
+                .filter(row -> row.getId() != null)
+                .map(row -> new SubscriptionDto(row.getId(), row.getServiceName(), row.getStartDate(),
+                        row.getEndDate(), row.getUserId()))
                 .collect(Collectors.toList());
+        return new VersionedSubscriptionsDto(rows.get(0).getSubscriptionsVersion(), subscriptions);
+    }
+
+    @Override
+    public long getSubscriptionsVersion(@ShardKey Long userId) {
+        if (userId == null || userId <= 0) {
+            throw UserIllegalArgumentException.INVALID_USER_ID;
+        }
+
+        return userRepository.findSubscriptionsVersionById(userId)
+                .orElseThrow(() -> new UserNotFoundException("Пользователь с ID " + userId + " не найден"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserSubscriptionsLookupDto getSubscriptionsForUsers(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw UserIllegalArgumentException.EMPTY_USER_IDS;
+        }
+        if (userIds.size() > lookupProperties.getMaxIds()) {
+            throw new UserIllegalArgumentException(
+                    String.format("За один запрос можно получить не более %d пользователей", lookupProperties.getMaxIds())
+            );
+        }
+        if (userIds.stream().anyMatch(id -> id == null || id <= 0)) {
+            throw UserIllegalArgumentException.INVALID_USER_ID;
+        }
+
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        Map<Long, List<SubscriptionDto>> byUser = new HashMap<>();
+        for (SubscriptionDto row : shardRouter.scatterByUser(uniqueIds, this::loadShardRows)) {
+            List<SubscriptionDto> subscriptions = byUser.computeIfAbsent(row.getUserId(), id -> new ArrayList<>());
+            if (row.getId() != null) {
+                subscriptions.add(row);
+            }
+        }
+
+        List<UserSubscriptionsDto> users = new ArrayList<>(byUser.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long userId : uniqueIds) {
+            List<SubscriptionDto> subscriptions = byUser.get(userId);
+            if (subscriptions != null) {
+                users.add(new UserSubscriptionsDto(userId, subscriptions));
+            } else {
+                missingIds.add(userId);
+            }
+        }
+        return new UserSubscriptionsLookupDto(users, missingIds);
+    }
+
+    private List<SubscriptionDto> loadShardRows(List<Long> userIds) {
+        List<SubscriptionDto> rows = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += lookupProperties.getChunkSize()) {
+            rows.addAll(subscriptionRepository.findSubscriptionRowsByUserIds(
+                    userIds.subList(from, Math.min(from + lookupProperties.getChunkSize(), userIds.size()))));
+        }
+        return rows;
     }
 
     @Override
     @Transactional()
-    public void deleteSubscription(Long userId, Long subscriptionId) {
+    public void deleteSubscription(@ShardKey Long userId, Long subscriptionId) {
         if (userId == null || userId <= 0 ) {
             throw new UserIllegalArgumentException("Неверный ID пользователя");
         }
@@ -89,30 +170,45 @@ public class SubscriptionServiceImpl implements SubscriptionService {
             throw new UserIllegalArgumentException("Неверный ID подписки");
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(
-                        String.format("Пользователь с ID %d не найден", userId)
-                ));
+        Optional<String> deletedServiceName = subscriptionRepository.deleteByIdAndUserId(subscriptionId, userId);
+        if (deletedServiceName.isPresent()) {
+            meterRegistry.summary(DELETE_STATEMENTS_METRIC).record(1);
+            subscriptionEventRecorder.record(SubscriptionEventType.SUBSCRIPTION_REMOVED,
+                    userId, subscriptionId, deletedServiceName.get());
+            subscriptionPopularityService.recordRemoved(deletedServiceName.get());
+            log.info("Удалена подписка ID {} пользователя ID {}", subscriptionId, userId);
+            return;
+        }
 
-        Subscription subscription = subscriptionRepository.findById(subscriptionId)
-                .orElseThrow(() -> new UserNotFoundException(
-                        String.format("Подписка с ID %d не найдена", subscriptionId)
-                ));
+        meterRegistry.summary(DELETE_STATEMENTS_METRIC).record(2);
+        SubscriptionOwnershipView ownership = subscriptionRepository.findOwnership(userId, subscriptionId);
 
-        if (!subscription.getUser().getId().equals(userId)) {
-            throw new SubscriptionForbiddenException(
-                    String.format("Подписка %d не принадлежит пользователю %d", subscriptionId, userId)
+        if (!ownership.getUserExists()) {
+            throw new UserNotFoundException(
+                    String.format("Пользователь с ID %d не найден", userId)
             );
         }
 
-        subscriptionRepository.deleteByIdAndUserId(subscriptionId, userId);
+        if (ownership.getOwnerId() == null) {
+            throw new UserNotFoundException(
+                    String.format("Подписка с ID %d не найдена", subscriptionId)
+            );
+        }
 
-        log.info("Удалена подписка ID {} пользователя ID {}", subscriptionId, userId);
+        throw new SubscriptionForbiddenException(
+                String.format("Подписка %d не принадлежит пользователю %d", subscriptionId, userId)
+        );
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<Object[]> getTop3PopularSubscriptions() {
-        return subscriptionRepository.findTop3PopularSubscriptions();
+    public List<ServicePopularityDto> getTopPopularSubscriptions(Integer limit) {
+        int topLimit = limit == null ? popularityProperties.getDefaultLimit() : limit;
+        if (topLimit <= 0 || topLimit > popularityProperties.getMaxLimit()) {
+            throw new SubscriptionIllegalArgumentException(
+                    String.format("Количество позиций должно быть от 1 до %d", popularityProperties.getMaxLimit())
+            );
+        }
+
+        return subscriptionPopularityService.getTopPopular(topLimit);
     }
 }
@@ -1,19 +1,44 @@
 package com.example.user_subscription.service.impl;
+import com.example.user_subscription.cache.UserCache;
+import com.example.user_subscription.config.UserLookupProperties;
+import com.example.user_subscription.config.UserPaginationProperties;
+import com.example.user_subscription.config.UserSearchProperties;
+import com.example.user_subscription.datasource.ShardKey;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.SubscriptionEventType;
 import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.dto.UserLookupDto;
+import com.example.user_subscription.dto.UserPageDto;
+import com.example.user_subscription.dto.UserSearchPageDto;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
 import com.example.user_subscription.exception.exceptions.user.*;
 import com.example.user_subscription.mapper.UserMapper;
 import com.example.user_subscription.model.User;
+import com.example.user_subscription.repository.SubscriptionRepository;
 import com.example.user_subscription.repository.UserRepository;
+import com.example.user_subscription.repository.UserSearchRepository;
+import com.example.user_subscription.repository.UserStreamRepository;
+import com.example.user_subscription.service.SubscriptionPopularityService;
 import com.example.user_subscription.service.UserService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -21,36 +46,123 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionPopularityService subscriptionPopularityService;
+    private final SubscriptionEventRecorder subscriptionEventRecorder;
+    private final UserCache userCache;
+    private final UserStreamRepository userStreamRepository;
+    private final UserPaginationProperties paginationProperties;
+    private final UserLookupProperties lookupProperties;
+    private final UserSearchRepository userSearchRepository;
+    private final UserSearchProperties searchProperties;
+    private final ShardRouter shardRouter;
 
+    /**
+     * The email is checked on every shard, since a user keeps its shard when its email
+     * changes. The insert is flushed while the new user's shard is still bound.
+     */
     @Override
     @Transactional()
     public UserDto createUser(UserDto userDto) {
-        if (userRepository.existsByEmail(userDto.getEmail())) {
+        if (shardRouter.scatter(() -> userRepository.existsByEmail(userDto.getEmail())).contains(true)) {
             throw new UserAlreadyExistsException("Пользователь с email " + userDto.getEmail() + " уже существует");
         }
         User user = userMapper.toUser(userDto);
-        userRepository.save(user);
+        shardRouter.runOn(shardRouter.shardForEmail(userDto.getEmail()), () -> {
+            userRepository.save(user);
+            userRepository.flush();
+        });
+        userCache.evict(user.getId());
         return userMapper.toDto(user);
     }
 
     @Override
-    public UserDto getUserById(Long id) {
+    public UserDto getUserById(@ShardKey Long id) {
         if (id == null || id <= 0) {
-            throw new UserIllegalArgumentException("ID пользователя должно быть положительным числом");
+            throw UserIllegalArgumentException.INVALID_USER_ID;
         }
 
-        User user = userRepository.findById(id)
+        return userCache.get(id, userRepository::findDtoById)
                 .orElseThrow(() -> new UserNotFoundException("Пользователь с id: " + id + " не найден"));
+    }
 
-        return userMapper.toDto(user);
+    /**
+     * Reads only the version column, so a conditional GET never has to load the row. The
+     * cache is not consulted: a 304 must never be answered from a stale entry.
+     */
+    @Override
+    public long getUserVersion(@ShardKey Long id) {
+        if (id == null || id <= 0) {
+            throw UserIllegalArgumentException.INVALID_USER_ID;
+        }
+
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new UserNotFoundException("Пользователь с id: " + id + " не найден"));
     }
 
 
+    @Override
+    public UserLookupDto getUsersByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw UserIllegalArgumentException.EMPTY_USER_IDS;
+        }
+        if (ids.size() > lookupProperties.getMaxIds()) {
+            throw new UserIllegalArgumentException(
+                    String.format("За один запрос можно получить не более %d пользователей", lookupProperties.getMaxIds())
+            );
+        }
+        if (ids.stream().anyMatch(id -> id == null || id <= 0)) {
+            throw UserIllegalArgumentException.INVALID_USER_ID;
+        }
+
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, UserDto> found = userCache.getAll(uniqueIds, this::loadUsers);
+
+        List<UserDto> users = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            UserDto user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new UserLookupDto(users, missingIds);
+    }
+
+    private Map<Long, UserDto> loadUsers(Set<Long> ids) {
+        Map<Long, UserDto> loaded = new HashMap<>();
+        for (UserDto user : shardRouter.scatterByUser(ids, this::loadShardUsers)) {
+            loaded.put(user.getId(), user);
+        }
+        return loaded;
+    }
+
+    private List<UserDto> loadShardUsers(List<Long> ids) {
+        List<UserDto> loaded = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += lookupProperties.getChunkSize()) {
+            loaded.addAll(userRepository.findDtosByIdIn(
+                    ids.subList(from, Math.min(from + lookupProperties.getChunkSize(), ids.size()))));
+        }
+        return loaded;
+    }
+
+    @Override
+    @Transactional()
+    public UserDto updateUser(@ShardKey Long id, UserDto userDto) {
+        return updateUser(id, userDto, null);
+    }
+
+    /**
+     * @param expectedVersion version from the client's {@code If-Match}, or {@code null}
+     *                        to update whatever is current
+     */
     @Override
     @Transactional()
-    public UserDto updateUser(Long id, UserDto userDto) {
+    public UserDto updateUser(@ShardKey Long id, UserDto userDto, Long expectedVersion) {
         if (id == null || id <= 0) {
-            throw new UserIllegalArgumentException("ID пользователя должно быть положительным числом");
+            throw UserIllegalArgumentException.INVALID_USER_ID;
         }
 
         if (userDto == null) {
@@ -62,8 +174,13 @@ public class UserServiceImpl implements UserService {
                         String.format("Пользователь с ID %d не найден", id)
                 ));
 
+        if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+            throw new UserPreconditionFailedException(
+                    String.format("Пользователь с ID %d был изменен, версия %d", id, existingUser.getVersion()));
+        }
+
         if (userDto.getEmail() != null && !userDto.getEmail().equals(existingUser.getEmail())) {
-            if (userRepository.existsByEmail(userDto.getEmail())) {
+            if (shardRouter.scatter(() -> userRepository.existsByEmail(userDto.getEmail())).contains(true)) {
                 throw new UserConflictException("Email " + userDto.getEmail() + " уже используется");
             }
         }
@@ -75,37 +192,145 @@ public class UserServiceImpl implements UserService {
             existingUser.setEmail(userDto.getEmail());
         }
 
-        User updatedUser = userRepository.save(existingUser);
-        return userMapper.toDto(updatedUser);
+        try {
+            userRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            String message = String.format("Пользователь с ID %d был изменен параллельным запросом", id);
+            throw expectedVersion != null
+                    ? new UserPreconditionFailedException(message)
+                    : new UserConflictException(message);
+        }
+        userCache.evict(id);
+        return userMapper.toDto(existingUser);
     }
 
 
     @Override
     @Transactional()
-    public void deleteUser(Long id) {
+    public void deleteUser(@ShardKey Long id) {
         if (id == null || id <= 0) {
-            throw new UserIllegalArgumentException("ID пользователя должно быть положительным числом");
+            throw UserIllegalArgumentException.INVALID_USER_ID;
         }
 
-        if (!userRepository.existsById(id)) {
+        List<String> serviceNames;
+        int deleted;
+        try {
+            serviceNames = subscriptionRepository.deleteAllByUserIdReturningServiceName(id);
+            deleted = userRepository.deleteUser(id);
+        } catch (Exception e) {
+            log.error("Неожиданная ошибка при удалении: {}", e.getMessage());
+            throw new UserDataAccessException("Ошибка при удалении пользователя", e);
+        }
+
+        if (deleted == 0) {
             throw new UserNotFoundException("Пользователь с ID " + id + " не найден");
         }
 
+        subscriptionEventRecorder.record(SubscriptionEventType.USER_DELETED, id, null, null);
+        userCache.evict(id);
+        subscriptionPopularityService.recordRemoved(serviceNames);
+        log.info("Пользователь с ID {} успешно удален", id);
+    }
+
+    @Override
+    public UserPageDto getAllUsers(Long cursor, Integer size) {
+        if (cursor != null && cursor < 0) {
+            throw new UserIllegalArgumentException("Курсор не может быть отрицательным");
+        }
+
+        int pageSize = size == null ? paginationProperties.getDefaultPageSize() : size;
+        if (pageSize <= 0 || pageSize > paginationProperties.getMaxPageSize()) {
+            throw new UserIllegalArgumentException(
+                    String.format("Размер страницы должен быть от 1 до %d", paginationProperties.getMaxPageSize())
+            );
+        }
+
+        long after = cursor == null ? 0L : cursor;
+        List<UserDto> users = shardRouter.scatter(() -> userRepository.findDtoPage(after, Limit.of(pageSize + 1)))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(UserDto::getId))
+                .limit(pageSize + 1)
+                .toList();
+
+        Long next = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            next = users.get(pageSize - 1).getId();
+        }
+
+        return new UserPageDto(users, next);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserSearchPageDto searchUsers(String email, String name, String cursor, Integer size) {
+        boolean byEmail = email != null && !email.isBlank();
+        boolean byName = name != null && !name.isBlank();
+        if (byEmail == byName) {
+            throw new UserIllegalArgumentException("Укажите ровно один параметр поиска: email или name");
+        }
+
+        String prefix = (byEmail ? email : name).strip();
+        if (prefix.length() > searchProperties.getMaxPrefixLength()) {
+            throw new UserIllegalArgumentException(
+                    String.format("Строка поиска не может быть длиннее %d символов", searchProperties.getMaxPrefixLength())
+            );
+        }
+
+        int pageSize = size == null ? searchProperties.getDefaultPageSize() : size;
+        if (pageSize <= 0 || pageSize > searchProperties.getMaxPageSize()) {
+            throw new UserIllegalArgumentException(
+                    String.format("Размер страницы должен быть от 1 до %d", searchProperties.getMaxPageSize())
+            );
+        }
+
+        String afterKey = null;
+        long afterId = 0;
+        if (cursor != null) {
+            String decoded = decodeSearchCursor(cursor);
+            int separator = decoded.indexOf(':');
+            try {
+                afterId = Long.parseLong(decoded.substring(0, Math.max(separator, 0)));
+            } catch (NumberFormatException e) {
+                throw new UserIllegalArgumentException("Некорректный курсор поиска");
+            }
+            afterKey = decoded.substring(separator + 1);
+        }
+
+        UserSearchRepository.Field field = byEmail ? UserSearchRepository.Field.EMAIL : UserSearchRepository.Field.NAME;
+        String fromKey = afterKey;
+        long fromId = afterId;
+        List<UserSearchRepository.Row> rows = shardRouter.scatter(() ->
+                        userSearchRepository.findByPrefix(field, prefix, fromKey, fromId, pageSize + 1))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(UserSearchRepository.Row.KEY_ORDER)
+                .limit(pageSize + 1)
+                .toList();
+
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            UserSearchRepository.Row last = rows.get(pageSize - 1);
+            next = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.user().getId() + ":" + last.key()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return new UserSearchPageDto(rows.stream().map(UserSearchRepository.Row::user).toList(), next);
+    }
+
+    private static String decodeSearchCursor(String cursor) {
         try {
-            userRepository.deleteById(id);
-            log.info("Пользователь с ID {} успешно удален", id);
-        } catch (UserEmptyResultDataAccessException e) {
-            log.error("Ошибка при удалении пользователя: {}", e.getMessage());
-            throw new UserNotFoundException("Пользователь уже был удален");
-        } catch (Exception e) {
-            log.error("Неожиданная ошибка при удалении: {}", e.getMessage());
-            throw new UserDataAccessException("Ошибка при удалении пользователя") {};
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new UserIllegalArgumentException("Некорректный курсор поиска");
         }
     }
 
+    /** Shard by shard, each in id order. */
     @Override
-    public List<UserDto> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return userMapper.toDtoList(users);
+    public void streamAllUsers(Consumer<UserDto> consumer) {
+        shardRouter.forEachShard(() -> userStreamRepository.forEachUser(consumer));
     }
 }
@@ -0,0 +1,107 @@
+-- Schema as it stood when ddl-auto=update and schema.sql managed it. Every statement is
+-- idempotent, so databases created that way are brought under Flyway by running this
+-- script against them (spring.flyway.baseline-version=0).
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS subscriptions_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS subscription_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint NOT NULL,
+    name varchar(255) NOT NULL,
+    email varchar(255) NOT NULL UNIQUE,
+    version bigint NOT NULL DEFAULT 0,
+    subscriptions_version bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS subscriptions (
+    id bigint NOT NULL,
+    service_name varchar(255) NOT NULL,
+    start_date date,
+    end_date date,
+    user_id bigint NOT NULL REFERENCES users (id),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_subscriptions_user_service UNIQUE (user_id, service_name)
+);
+CREATE INDEX IF NOT EXISTS idx_subscriptions_end_date_id ON subscriptions (end_date, id);
+
+-- A pre-existing schema keeps its tables as they were, so what was added to them since is added here.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS subscriptions_version bigint NOT NULL DEFAULT 0;
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'subscriptions'::regclass AND conname = 'uk_subscriptions_user_service') THEN
+        ALTER TABLE subscriptions ADD CONSTRAINT uk_subscriptions_user_service UNIQUE (user_id, service_name);
+    END IF;
+END
+$$;
+
+CREATE TABLE IF NOT EXISTS subscriptions_history (
+    id bigint NOT NULL,
+    service_name varchar(255) NOT NULL,
+    start_date date,
+    end_date date,
+    user_id bigint NOT NULL,
+    archived_at timestamp(6) with time zone NOT NULL,
+    cancelled_on date,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_subscriptions_history_user ON subscriptions_history (user_id);
+
+CREATE TABLE IF NOT EXISTS service_popularity (
+    service_name varchar(255) NOT NULL,
+    subscription_count bigint NOT NULL,
+    PRIMARY KEY (service_name)
+);
+
+CREATE TABLE IF NOT EXISTS subscription_outbox (
+    id bigint NOT NULL,
+    event_type varchar(32) NOT NULL
+        CHECK (event_type IN ('SUBSCRIPTION_ADDED', 'SUBSCRIPTION_REMOVED', 'USER_DELETED')),
+    user_id bigint NOT NULL,
+    subscription_id bigint,
+    service_name varchar(255),
+    occurred_at timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Keeps the pooled sequences ahead of ids created before the switch from identity columns.
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users), (SELECT last_value FROM users_seq)));
+SELECT setval('subscriptions_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM subscriptions), (SELECT last_value FROM subscriptions_seq)));
+
+-- Responses replayed for repeated Idempotency-Key requests when idempotency.jdbc-enabled is set.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key varchar(512) PRIMARY KEY,
+    request_hash char(64) NOT NULL,
+    status integer NOT NULL,
+    content_type varchar(255),
+    body bytea NOT NULL,
+    created_at timestamptz NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
+
+-- Prefix search on /users/search. "C" collation lets one index serve both LIKE 'abc%' and the keyset order.
+CREATE INDEX IF NOT EXISTS idx_users_email_search ON users ((lower(email)) COLLATE "C", id);
+CREATE INDEX IF NOT EXISTS idx_users_name_search ON users ((lower(name)) COLLATE "C", id);
+
+-- Subscription analytics. Writes append signed deltas; SubscriptionAnalyticsService folds them into the
+-- daily rollups, which are the only thing /analytics reads.
+CREATE TABLE IF NOT EXISTS subscription_stats_deltas (
+    id bigserial PRIMARY KEY,
+    service_name varchar(255) NOT NULL,
+    day date NOT NULL,
+    started integer NOT NULL,
+    expired integer NOT NULL,
+    cancelled integer NOT NULL
+);
+CREATE TABLE IF NOT EXISTS subscription_daily_stats (
+    service_name varchar(255) NOT NULL,
+    day date NOT NULL,
+    started bigint NOT NULL DEFAULT 0,
+    expired bigint NOT NULL DEFAULT 0,
+    cancelled bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (service_name, day)
+);
+CREATE INDEX IF NOT EXISTS idx_subscription_daily_stats_day ON subscription_daily_stats (day);
@@ -0,0 +1,112 @@
+-- subscriptions becomes a table partitioned by month of start_date. Postgres requires every
+-- unique constraint of a partitioned table to include the partition key, so the primary key
+-- becomes (id, start_date) and the one-subscription-per-service rule moves to
+-- subscription_keys, kept in step by statement-level triggers. The key table also maps an id
+-- to its start_date, which lets lookups by id name the partition they need.
+
+-- The partition key cannot be null. Legacy rows without a start date are taken to have
+-- started today, or on their end date if that has already passed, and counted as such.
+INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+SELECT service_name, LEAST(CURRENT_DATE, COALESCE(end_date, CURRENT_DATE)), 1, 0, 0
+FROM subscriptions WHERE start_date IS NULL
+UNION ALL
+SELECT service_name, end_date, 0, 1, 0
+FROM subscriptions WHERE start_date IS NULL AND end_date IS NOT NULL;
+
+UPDATE subscriptions
+SET start_date = LEAST(CURRENT_DATE, COALESCE(end_date, CURRENT_DATE))
+WHERE start_date IS NULL;
+
+CREATE TABLE subscriptions_partitioned (
+    id bigint NOT NULL,
+    service_name varchar(255) NOT NULL,
+    start_date date NOT NULL,
+    end_date date,
+    user_id bigint NOT NULL
+) PARTITION BY RANGE (start_date);
+
+-- Catches start dates no monthly partition covers yet; SubscriptionPartitionService keeps
+-- partitions created ahead so that it stays empty.
+CREATE TABLE subscriptions_default PARTITION OF subscriptions_partitioned DEFAULT;
+
+DO $$
+DECLARE
+    month_start date;
+BEGIN
+    FOR month_start IN
+        SELECT generate_series(
+                LEAST(date_trunc('month', CURRENT_DATE),
+                      COALESCE((SELECT date_trunc('month', MIN(start_date)) FROM subscriptions), date_trunc('month', CURRENT_DATE))),
+                date_trunc('month', CURRENT_DATE) + interval '3 months',
+                interval '1 month')::date
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF subscriptions_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'subscriptions_p' || to_char(month_start, 'YYYYMM'),
+                       month_start, (month_start + interval '1 month')::date);
+    END LOOP;
+END
+$$;
+
+INSERT INTO subscriptions_partitioned (id, service_name, start_date, end_date, user_id)
+SELECT id, service_name, start_date, end_date, user_id FROM subscriptions;
+
+CREATE TABLE subscription_keys (
+    user_id bigint NOT NULL,
+    service_name varchar(255) NOT NULL,
+    subscription_id bigint NOT NULL,
+    start_date date NOT NULL,
+    PRIMARY KEY (user_id, service_name),
+    CONSTRAINT uk_subscription_keys_subscription UNIQUE (subscription_id)
+);
+
+INSERT INTO subscription_keys (user_id, service_name, subscription_id, start_date)
+SELECT user_id, service_name, id, start_date FROM subscriptions;
+
+DROP TABLE subscriptions;
+ALTER TABLE subscriptions_partitioned RENAME TO subscriptions;
+
+ALTER TABLE subscriptions ADD CONSTRAINT subscriptions_pkey PRIMARY KEY (id, start_date);
+ALTER TABLE subscriptions ADD CONSTRAINT fk_subscriptions_user FOREIGN KEY (user_id) REFERENCES users (id);
+CREATE INDEX idx_subscriptions_user_id ON subscriptions (user_id);
+CREATE INDEX idx_subscriptions_end_date_id ON subscriptions (end_date, id);
+
+-- A key claimed in the same statement for the same subscription (insertIfAbsent does this)
+-- is accepted; any other existing key is reported like the unique constraint it replaces.
+CREATE FUNCTION subscription_keys_add() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        DELETE FROM subscription_keys k USING old_rows o WHERE k.subscription_id = o.id;
+    END IF;
+
+    INSERT INTO subscription_keys (user_id, service_name, subscription_id, start_date)
+    SELECT user_id, service_name, id, start_date FROM new_rows
+    ON CONFLICT (user_id, service_name) DO NOTHING;
+
+    IF EXISTS (SELECT 1
+               FROM new_rows n
+               JOIN subscription_keys k ON k.user_id = n.user_id AND k.service_name = n.service_name
+               WHERE k.subscription_id <> n.id) THEN
+        RAISE unique_violation USING
+            CONSTRAINT = 'uk_subscriptions_user_service',
+            MESSAGE = 'duplicate key value violates unique constraint "uk_subscriptions_user_service"';
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION subscription_keys_remove() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    DELETE FROM subscription_keys k USING old_rows o WHERE k.subscription_id = o.id;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER subscription_keys_on_insert AFTER INSERT ON subscriptions
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION subscription_keys_add();
+CREATE TRIGGER subscription_keys_on_update AFTER UPDATE ON subscriptions
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION subscription_keys_add();
+CREATE TRIGGER subscription_keys_on_delete AFTER DELETE ON subscriptions
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION subscription_keys_remove();
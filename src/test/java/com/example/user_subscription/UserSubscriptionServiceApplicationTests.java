@@ -1,10 +1,11 @@
 package com.example.user_subscription;
 
+import com.example.user_subscription.integration.AbstractPostgresIntegrationTest;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 @SpringBootTest
-class UserSubscriptionServiceApplicationTests {
+class UserSubscriptionServiceApplicationTests extends AbstractPostgresIntegrationTest {
 
 	@Test
 	void contextLoads() {
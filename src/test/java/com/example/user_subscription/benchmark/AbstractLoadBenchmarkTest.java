@@ -0,0 +1,125 @@
+package com.example.user_subscription.benchmark;
+
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.integration.AbstractPostgresIntegrationTest;
+import com.example.user_subscription.service.SubscriptionService;
+import com.example.user_subscription.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the read endpoints with many concurrent clients and logs throughput and
+ * latency percentiles, so that runs with platform threads, virtual threads and the
+ * reactive stack can be compared side by side. Every client keeps its own
+ * connection open, so raising {@code -Dbenchmark.concurrency} (default 500) shows how
+ * many concurrent connections each stack holds before latency or errors climb.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.show-sql=false", "user.cache.enabled=false"})
+abstract class AbstractLoadBenchmarkTest extends AbstractPostgresIntegrationTest {
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 500);
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration DURATION = Duration.ofSeconds(20);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    protected abstract String mode();
+
+    @Test
+    void readEndpoints_UnderConcurrentLoad() {
+        Long userId = userService.createUser(
+                new UserDto(null, "Load User", mode() + "-load@example.com")).getId();
+        for (int i = 0; i < 5; i++) {
+            subscriptionService.addSubscription(userId, new SubscriptionDto(null, "Service " + i, null, null, null));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        for (String path : List.of("/users/" + userId, "/users/" + userId + "/subscriptions")) {
+            run(client, path, WARMUP);
+            LoadResult result = run(client, path, DURATION);
+            log.info("[{}] {} connections, GET {}: {} req/s, p50 {} ms, p99 {} ms, errors {}",
+                    mode(), CONCURRENCY, path, String.format("%.0f", result.throughput()), result.percentileMillis(0.50),
+                    result.percentileMillis(0.99), result.errors());
+            assertEquals(0, result.errors());
+        }
+    }
+
+    private LoadResult run(HttpClient client, String path, Duration duration) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latencies.add(System.nanoTime() - started);
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        return new LoadResult(latencies, errors.sum(), duration);
+    }
+
+    private record LoadResult(List<Long> latencies, long errors, Duration duration) {
+
+        double throughput() {
+            return latencies.size() / (duration.toMillis() / 1000.0);
+        }
+
+        String percentileMillis(double percentile) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            if (sorted.isEmpty()) {
+                return "n/a";
+            }
+            long nanos = sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1));
+            return String.format("%.1f", nanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.user_subscription.benchmark;
+
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.integration.AbstractPostgresIntegrationTest;
+import com.example.user_subscription.service.SubscriptionService;
+import com.example.user_subscription.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput of the id strategies. Run with
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=IdGenerationBenchmarkTest}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class IdGenerationBenchmarkTest extends AbstractPostgresIntegrationTest {
+    private static final int ROWS = 5_000;
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void createUser_Throughput() {
+        long started = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            userService.createUser(new UserDto(null, "User " + i, "bench-user-" + i + "@example.com"));
+        }
+        report("createUser (pooled-lo sequence)", ROWS, started);
+    }
+
+    @Test
+    void addSubscription_Throughput() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < ROWS / 10; i++) {
+            userIds.add(userService.createUser(
+                    new UserDto(null, "Subscriber " + i, "bench-subscriber-" + i + "@example.com")).getId());
+        }
+
+        long started = System.nanoTime();
+        for (Long userId : userIds) {
+            for (int service = 0; service < 10; service++) {
+                subscriptionService.addSubscription(userId,
+                        new SubscriptionDto(null, "Service " + service, null, null, null));
+            }
+        }
+        report("addSubscription (pooled-lo sequence)", ROWS, started);
+    }
+
+    @Test
+    void identityVersusPooledSequence_RawInserts() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE bench_identity (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, name TEXT)");
+            ddl.execute("CREATE TABLE bench_sequence (id BIGINT PRIMARY KEY, name TEXT)");
+            ddl.execute("CREATE SEQUENCE bench_sequence_seq INCREMENT BY " + ALLOCATION_SIZE);
+            connection.setAutoCommit(false);
+
+            long started = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO bench_identity (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < ROWS; i++) {
+                    insert.setString(1, "row " + i);
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        assertTrue(keys.next());
+                    }
+                }
+            }
+            connection.commit();
+            double identityRate = report("identity, one statement per row", ROWS, started);
+
+            started = System.nanoTime();
+            try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('bench_sequence_seq')");
+                 PreparedStatement insert = connection.prepareStatement(
+                         "INSERT INTO bench_sequence (id, name) VALUES (?, ?)")) {
+                long low = 0;
+                for (int i = 0; i < ROWS; i++) {
+                    if (i % ALLOCATION_SIZE == 0) {
+                        try (ResultSet value = nextval.executeQuery()) {
+                            value.next();
+                            low = value.getLong(1);
+                        }
+                    }
+                    insert.setLong(1, low + i % ALLOCATION_SIZE);
+                    insert.setString(2, "row " + i);
+                    insert.addBatch();
+                    if ((i + 1) % ALLOCATION_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+            double sequenceRate = report("pooled-lo sequence, batched", ROWS, started);
+
+            log.info("pooled-lo / identity speedup: {}x", String.format("%.1f", sequenceRate / identityRate));
+        }
+    }
+
+    private static double report(String scenario, int rows, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+        double rate = rows / seconds;
+        log.info("{}: {} rows in {} s, {} inserts/sec", scenario, rows,
+                String.format("%.2f", seconds), String.format("%.0f", rate));
+        return rate;
+    }
+}
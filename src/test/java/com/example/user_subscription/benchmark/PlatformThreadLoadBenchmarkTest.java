@@ -0,0 +1,9 @@
+package com.example.user_subscription.benchmark;
+
+class PlatformThreadLoadBenchmarkTest extends AbstractLoadBenchmarkTest {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
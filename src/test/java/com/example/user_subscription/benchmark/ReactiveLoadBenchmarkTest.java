@@ -0,0 +1,12 @@
+package com.example.user_subscription.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("reactive")
+class ReactiveLoadBenchmarkTest extends AbstractLoadBenchmarkTest {
+
+    @Override
+    protected String mode() {
+        return "reactive";
+    }
+}
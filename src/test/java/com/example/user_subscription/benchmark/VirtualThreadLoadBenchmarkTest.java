@@ -0,0 +1,12 @@
+package com.example.user_subscription.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("virtual")
+class VirtualThreadLoadBenchmarkTest extends AbstractLoadBenchmarkTest {
+
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
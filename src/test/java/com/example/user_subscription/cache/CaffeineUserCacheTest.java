@@ -0,0 +1,181 @@
+package com.example.user_subscription.cache;
+
+import com.example.user_subscription.config.UserCacheProperties;
+import com.example.user_subscription.dto.UserDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineUserCacheTest {
+
+    private CaffeineUserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new CaffeineUserCache(new UserCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_ShouldLoadOnce_WhenUserExists() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, Optional<UserDto>> loader = id -> {
+            loads.incrementAndGet();
+            return Optional.of(new UserDto(id, "Test User", "test@example.com"));
+        };
+
+        userCache.get(1L, loader);
+        Optional<UserDto> result = userCache.get(1L, loader);
+
+        assertTrue(result.isPresent());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getAll_ShouldLoadOnlyIdsNotCachedYet() {
+        List<Set<Long>> requested = new CopyOnWriteArrayList<>();
+        Function<Set<Long>, Map<Long, UserDto>> loader = ids -> {
+            requested.add(Set.copyOf(ids));
+            return ids.contains(1L) ? Map.of(1L, new UserDto(1L, "Test User", "test@example.com")) : Map.of();
+        };
+
+        userCache.getAll(List.of(1L, 2L), loader);
+        Map<Long, UserDto> result = userCache.getAll(List.of(1L, 2L, 3L), loader);
+
+        assertEquals(Set.of(1L), result.keySet());
+        assertEquals(List.of(Set.of(1L, 2L), Set.of(3L)), requested);
+    }
+
+    @Test
+    void getAll_ShouldNotStoreRows_EvictedWhileLoading() {
+        userCache.getAll(List.of(1L, 2L), ids -> {
+            userCache.evict(1L);
+            return Map.of(1L, new UserDto(1L, "Old Name", "old@example.com"),
+                    2L, new UserDto(2L, "Kept", "kept@example.com"));
+        });
+        List<Set<Long>> requested = new CopyOnWriteArrayList<>();
+        Map<Long, UserDto> result = userCache.getAll(List.of(1L, 2L), ids -> {
+            requested.add(Set.copyOf(ids));
+            return Map.of(1L, new UserDto(1L, "New Name", "new@example.com"));
+        });
+
+        assertEquals(List.of(Set.of(1L)), requested);
+        assertEquals("New Name", result.get(1L).getName());
+        assertEquals("Kept", result.get(2L).getName());
+    }
+
+    @Test
+    void get_ShouldCacheMissingUser_UntilEvicted() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, Optional<UserDto>> loader = id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        };
+
+        assertTrue(userCache.get(999L, loader).isEmpty());
+        assertTrue(userCache.get(999L, loader).isEmpty());
+        assertEquals(1, loads.get());
+
+        userCache.evict(999L);
+        userCache.get(999L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_ShouldForceReload_AfterUpdate() {
+        userCache.get(1L, id -> Optional.of(new UserDto(id, "Old Name", "test@example.com")));
+
+        userCache.evict(1L);
+        Optional<UserDto> result = userCache.get(1L, id -> Optional.of(new UserDto(id, "New Name", "test@example.com")));
+
+        assertEquals("New Name", result.orElseThrow().getName());
+    }
+
+    @Test
+    void get_ShouldNotStoreRow_WhenEvictedWhileLoading() {
+        userCache.get(1L, id -> {
+            userCache.evict(id);
+            return Optional.of(new UserDto(id, "Old Name", "test@example.com"));
+        });
+        Optional<UserDto> result = userCache.get(1L, id -> Optional.of(new UserDto(id, "New Name", "test@example.com")));
+
+        assertEquals("New Name", result.orElseThrow().getName());
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingUser_WhenEvictedWhileLoading() {
+        userCache.get(1L, id -> {
+            userCache.evict(id);
+            return Optional.empty();
+        });
+
+        assertTrue(userCache.get(1L, id -> Optional.of(new UserDto(id, "Created", "test@example.com"))).isPresent());
+    }
+
+    @Test
+    void evict_ShouldEvictAgain_AfterReplicaLag() throws InterruptedException {
+        CaffeineUserCache lagging = new CaffeineUserCache(
+                new UserCacheProperties(), new SimpleMeterRegistry(), Duration.ofMillis(50));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lagging.evict(1L);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        lagging.get(1L, id -> Optional.of(new UserDto(id, "Replica Name", "test@example.com")));
+
+        Thread.sleep(300);
+        Optional<UserDto> result = lagging.get(1L, id -> Optional.of(new UserDto(id, "New Name", "test@example.com")));
+
+        assertEquals("New Name", result.orElseThrow().getName());
+    }
+
+    @Test
+    void get_ShouldNotPinCarrierThread_WhenLoaderBlocksOnVirtualThread() {
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            recording.onEvent("jdk.VirtualThreadPinned", pinnedEvents::add);
+            recording.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long id = 1; id <= 20; id++) {
+                    executor.submit(() -> userCache.get(1L, key -> {
+                        sleep(Duration.ofMillis(20));
+                        return Optional.of(new UserDto(key, "Test User", "test@example.com"));
+                    }));
+                }
+            }
+            recording.stop();
+        }
+
+        assertTrue(pinnedEvents.isEmpty(), () -> "Pinned virtual threads: " + pinnedEvents);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
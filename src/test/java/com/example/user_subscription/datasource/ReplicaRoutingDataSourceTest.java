@@ -0,0 +1,87 @@
+package com.example.user_subscription.datasource;
+
+import com.example.user_subscription.datasource.ReplicaRoutingDataSource.Replica;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private Replica first;
+    private Replica second;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        first = new Replica("replica-1", mock(DataSource.class));
+        second = new Replica("replica-2", mock(DataSource.class));
+        first.setAvailable(true);
+        second.setAvailable(true);
+        routingDataSource = new ReplicaRoutingDataSource(mock(DataSource.class), List.of(first, second));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        ReadYourWritesContext.close();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldRoundRobinOverAvailableReplicas() {
+        readOnlyTransaction();
+
+        assertThat(List.of(key(), key(), key(), key()))
+                .containsExactly("replica-1", "replica-2", "replica-1", "replica-2");
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldSkipReplicasThatAreBehind() {
+        readOnlyTransaction();
+        first.setAvailable(false);
+
+        assertThat(List.of(key(), key())).containsOnly("replica-2");
+
+        second.setAvailable(false);
+        assertThat(key()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void writeTransactions_ShouldUsePrimaryAndPinLaterReadsOfTheRequest() {
+        AtomicInteger cookies = new AtomicInteger();
+        ReadYourWritesContext.open(false, cookies::incrementAndGet);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(key()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(key()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+
+        readOnlyTransaction();
+        assertThat(key()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(cookies).hasValue(1);
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldUsePrimary_WhenClientIsPinned() {
+        ReadYourWritesContext.open(true, () -> { });
+        readOnlyTransaction();
+
+        assertThat(key()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    private void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private Object key() {
+        return routingDataSource.determineCurrentLookupKey();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.user_subscription.datasource;
+
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.service.UserService;
+import com.example.user_subscription.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ShardRouterTest {
+    private static final int SHARDS = 3;
+
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    void setUp() {
+        ShardRoutingProperties properties = new ShardRoutingProperties();
+        properties.setEnabled(true);
+        for (int i = 0; i < SHARDS; i++) {
+            properties.getNodes().add(new ShardRoutingProperties.Node());
+        }
+        shardRouter = new ShardRouter(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardRouter.shutdown();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void shardFor_ShouldSpreadSequentialIdsEvenly() {
+        Map<Integer, Long> users = LongStream.rangeClosed(1, 30_000).boxed()
+                .collect(Collectors.groupingBy(shardRouter::shardFor, Collectors.counting()));
+
+        assertThat(users).hasSize(SHARDS);
+        assertThat(users.values()).allSatisfy(count -> assertThat(count).isBetween(9_500L, 10_500L));
+        assertThat(ShardRouter.shardOf(42, SHARDS)).isEqualTo(shardRouter.shardFor(42));
+    }
+
+    @Test
+    void scatter_ShouldRunOncePerShard_AndReturnResultsInShardOrder() {
+        assertThat(shardRouter.scatter(ShardContext::current)).containsExactly(0, 1, 2);
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void scatterByUser_ShouldHandEachShardOnlyItsOwnUsers() {
+        List<Long> ids = LongStream.rangeClosed(1, 20).boxed().toList();
+
+        List<String> seen = shardRouter.scatterByUser(ids, shardIds -> shardIds.stream()
+                .map(id -> id + "@" + ShardContext.current())
+                .toList());
+
+        assertThat(seen).hasSize(ids.size());
+        assertThat(seen).allSatisfy(entry -> {
+            long id = Long.parseLong(entry.substring(0, entry.indexOf('@')));
+            assertThat(entry).endsWith("@" + shardRouter.shardFor(id));
+        });
+    }
+
+    @Test
+    void forEachShard_ShouldBindShardsInTurnOnCallerThread() {
+        List<Integer> shards = new ArrayList<>();
+        shardRouter.forEachShard(() -> shards.add(ShardContext.current()));
+
+        assertThat(shards).containsExactly(0, 1, 2);
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void runOn_ShouldRefuseToSwitchShardInsideTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        shardRouter.runOn(1, () -> shardRouter.runOn(1, () -> assertThat(ShardContext.current()).isEqualTo(1)));
+        assertThatThrownBy(() -> shardRouter.runOn(1, () -> shardRouter.runOn(2, () -> { })))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    void disabled_ShouldRunEverythingInlineOnOneShard() {
+        ShardRouter single = new ShardRouter(new ShardRoutingProperties());
+        Thread caller = Thread.currentThread();
+
+        assertThat(single.shardCount()).isEqualTo(1);
+        assertThat(single.scatter(() -> Thread.currentThread() == caller)).containsExactly(true);
+        assertThat(single.scatter(ShardContext::current)).containsExactly((Integer) null);
+        assertThat(single.groupByShard(List.of(5L, 6L), Long::longValue)).isEqualTo(Map.of(0, List.of(5L, 6L)));
+    }
+
+    @Test
+    void routingDataSource_ShouldUseBoundShard_AndFirstShardWhenUnbound() {
+        DataSource third = mock(DataSource.class);
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(
+                List.of(mock(DataSource.class), mock(DataSource.class), third));
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ShardRoutingDataSource.HOME_SHARD);
+        Object key = shardRouter.callOn(2, routing::determineCurrentLookupKey);
+        assertThat(key).isEqualTo(2);
+        assertThat(routing.getResolvedDataSources().get(key)).isSameAs(third);
+    }
+
+    @Test
+    void aspect_ShouldBindShardOfKeyArgumentAroundServiceCall() {
+        UserServiceImpl target = mock(UserServiceImpl.class);
+        AtomicReference<Integer> bound = new AtomicReference<>();
+        when(target.getUserById(anyLong())).thenAnswer(invocation -> {
+            bound.set(ShardContext.current());
+            return new UserDto(invocation.getArgument(0), "John", "john@example.com");
+        });
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new ShardRoutingAspect(shardRouter));
+        UserService userService = proxyFactory.getProxy();
+
+        userService.getUserById(77L);
+
+        assertThat(bound.get()).isEqualTo(shardRouter.shardFor(77L));
+        assertThat(ShardContext.current()).isNull();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.user_subscription.event;
+
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.config.SubscriptionEventProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.SubscriptionEventDto;
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.repository.SubscriptionOutboxRepository;
+import com.example.user_subscription.repository.projection.SubscriptionOutboxView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SubscriptionOutboxRelayTest {
+
+    private final SubscriptionOutboxRepository outboxRepository = mock(SubscriptionOutboxRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SubscriptionEventProperties properties = new SubscriptionEventProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<SubscriptionEventDto> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+    }
+
+    @Test
+    void relay_ShouldDrainFullBatchesInIdOrder_UntilShortBatch() {
+        when(outboxRepository.claimBatch(2))
+                .thenReturn(List.of(view(2), view(1)))
+                .thenReturn(List.of(view(3)));
+
+        relay(published::addAll).relay();
+
+        assertThat(published).extracting(SubscriptionEventDto::getId).containsExactly(1L, 2L, 3L);
+        verify(outboxRepository, times(2)).claimBatch(2);
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(meterRegistry.counter("subscription.outbox.published").count()).isEqualTo(3);
+    }
+
+    @Test
+    void relay_ShouldRollBackAndStop_WhenSinkFails() {
+        when(outboxRepository.claimBatch(2)).thenReturn(List.of(view(1), view(2)));
+
+        relay(events -> {
+            throw new IllegalStateException("webhook down");
+        }).relay();
+
+        verify(outboxRepository, times(1)).claimBatch(2);
+        verify(transactionManager).rollback(any());
+        assertThat(meterRegistry.counter("subscription.outbox.batches.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void relay_ShouldStopAfterMaxBatchesPerRun() {
+        properties.setMaxBatchesPerRun(3);
+        when(outboxRepository.claimBatch(2)).thenAnswer(inv -> LongStream.rangeClosed(1, 2).mapToObj(this::view).toList());
+
+        relay(published::addAll).relay();
+
+        verify(outboxRepository, times(3)).claimBatch(2);
+    }
+
+    private SubscriptionOutboxRelay relay(SubscriptionEventSink sink) {
+        return new SubscriptionOutboxRelay(outboxRepository, List.of(sink), properties, transactionManager, meterRegistry,
+                new ShardRouter(new ShardRoutingProperties()));
+    }
+
+    private SubscriptionOutboxView view(long id) {
+        return new OutboxRow(id, SubscriptionEventType.SUBSCRIPTION_ADDED, 7L, id, "Netflix", Instant.EPOCH);
+    }
+
+    private record OutboxRow(Long getId, SubscriptionEventType getEventType, Long getUserId,
+                             Long getSubscriptionId, String getServiceName, Instant getOccurredAt)
+            implements SubscriptionOutboxView {
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.user_subscription.idempotency;
+
+import com.example.user_subscription.config.IdempotencyProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private IdempotencyProperties properties;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        filter = new IdempotencyFilter(new CaffeineIdempotencyStore(properties, new SimpleMeterRegistry()),
+                properties, new ObjectMapper());
+    }
+
+    @Test
+    void duplicate_ShouldReplayRecordedResponseWithoutReachingController() throws Exception {
+        MockHttpServletResponse first = perform(post("/users", "key-1", "{\"name\":\"A\"}"), created());
+        MockHttpServletResponse second = perform(post("/users", "key-1", "{\"name\":\"A\"}"), created());
+
+        assertThat(invocations).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(201);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void sameKeyWithDifferentBody_ShouldBeRejected() throws Exception {
+        perform(post("/users", "key-1", "{\"name\":\"A\"}"), created());
+        MockHttpServletResponse second = perform(post("/users", "key-1", "{\"name\":\"B\"}"), created());
+
+        assertThat(invocations).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void serverError_ShouldNotBeRecorded() throws Exception {
+        FilterChain failing = (request, response) -> {
+            invocations.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        };
+        perform(post("/users/1/subscriptions", "key-1", "{}"), failing);
+        perform(post("/users/1/subscriptions", "key-1", "{}"), failing);
+
+        assertThat(invocations).hasValue(2);
+    }
+
+    @Test
+    void requestsWithoutKeyOrOnOtherPaths_ShouldPassThrough() throws Exception {
+        MockHttpServletRequest withoutKey = post("/users", null, "{}");
+        perform(withoutKey, created());
+        perform(withoutKey, created());
+        perform(post("/users/lookup", "key-1", "[1]"), created());
+        perform(post("/users/lookup", "key-1", "[1]"), created());
+
+        assertThat(invocations).hasValue(4);
+    }
+
+    @Test
+    void concurrentDuplicate_ShouldWaitForInFlightRequestAndReplayIt() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            created().doFilter(request, response);
+        };
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(
+                () -> performUnchecked(post("/users", "key-1", "{}"), slow));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(
+                () -> performUnchecked(post("/users", "key-1", "{}"), slow));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.getStatus()).isEqualTo(201);
+        assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    void cachedBody_ShouldBeDeliveredToReadListener() throws Exception {
+        StringBuilder received = new StringBuilder();
+        FilterChain nonBlocking = (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        received.append((char) input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    received.append('|');
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    received.append("error");
+                }
+            });
+            created().doFilter(request, response);
+        };
+
+        MockHttpServletResponse response = perform(post("/users", "key-1", "{\"name\":\"A\"}"), nonBlocking);
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(received).hasToString("{\"name\":\"A\"}|");
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            int call = invocations.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setContentType("application/json");
+            httpResponse.getOutputStream().write(("{\"id\":" + call + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse performUnchecked(MockHttpServletRequest request, FilterChain chain) {
+        try {
+            return perform(request, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MockHttpServletRequest post(String uri, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
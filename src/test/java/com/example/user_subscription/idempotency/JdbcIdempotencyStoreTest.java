@@ -0,0 +1,61 @@
+package com.example.user_subscription.idempotency;
+
+import com.example.user_subscription.config.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JdbcIdempotencyStoreTest {
+    private static final String KEY = "/users key-1";
+
+    private JdbcTemplate jdbcTemplate;
+    private CaffeineIdempotencyStore nearCache;
+    private JdbcIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        jdbcTemplate = mock(JdbcTemplate.class);
+        nearCache = new CaffeineIdempotencyStore(properties, new SimpleMeterRegistry());
+        store = new JdbcIdempotencyStore(jdbcTemplate, nearCache, properties);
+    }
+
+    @Test
+    void save_ShouldCacheOwnResponse_WhenInserted() {
+        IdempotentResponse response = response("{\"id\":1}");
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        store.save(KEY, response);
+
+        assertThat(nearCache.find(KEY)).contains(response);
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_ShouldCacheStoredResponse_WhenAnotherRequestWon() {
+        IdempotentResponse winner = response("{\"id\":1}");
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(KEY), any(Timestamp.class)))
+                .thenReturn(List.of(winner));
+
+        store.save(KEY, response("{\"id\":2}"));
+
+        assertThat(nearCache.find(KEY)).contains(winner);
+        assertThat(store.find(KEY)).contains(winner);
+    }
+
+    private static IdempotentResponse response(String body) {
+        return new IdempotentResponse("hash", 201, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+}
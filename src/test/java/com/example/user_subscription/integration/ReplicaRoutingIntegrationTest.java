@@ -0,0 +1,121 @@
+package com.example.user_subscription.integration;
+
+import com.example.user_subscription.config.ReplicaRoutingProperties;
+import com.example.user_subscription.datasource.ReplicaHealthMonitor;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs against two independent Postgres containers. The "replica" is not replicating;
+ * it holds a user the primary does not have, which shows where each read was served.
+ */
+@SpringBootTest(properties = {
+        "user.cache.enabled=false",
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.health-check-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingIntegrationTest extends AbstractPostgresIntegrationTest {
+    private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:16-alpine");
+    private static final long REPLICA_ONLY_USER_ID = 1_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReplicaHealthMonitor replicaHealthMonitor;
+
+    @Autowired
+    private ReplicaRoutingProperties replicaRoutingProperties;
+
+    @BeforeAll
+    static void startReplica() {
+        REPLICA.start();
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(
+                REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword()));
+        replica.execute("""
+            CREATE TABLE IF NOT EXISTS users (
+                id bigint PRIMARY KEY,
+                name varchar(255) NOT NULL,
+                email varchar(255) NOT NULL UNIQUE,
+                version bigint NOT NULL DEFAULT 0,
+                subscriptions_version bigint NOT NULL DEFAULT 0
+            )
+            """);
+        replica.update("INSERT INTO users (id, name, email) VALUES (?, 'Replica', 'replica@example.com') "
+                + "ON CONFLICT DO NOTHING", REPLICA_ONLY_USER_ID);
+    }
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("datasource.replicas.nodes[0].name", () -> "replica-1");
+        registry.add("datasource.replicas.nodes[0].url", REPLICA::getJdbcUrl);
+        registry.add("datasource.replicas.nodes[0].username", REPLICA::getUsername);
+        registry.add("datasource.replicas.nodes[0].password", REPLICA::getPassword);
+    }
+
+    @BeforeEach
+    void checkReplicas() {
+        replicaHealthMonitor.checkReplicas();
+    }
+
+    @AfterEach
+    void restoreMaxLag() {
+        replicaRoutingProperties.setMaxLag(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void reads_ShouldBeServedByReplica() throws Exception {
+        mockMvc.perform(get("/users/{id}", REPLICA_ONLY_USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("replica@example.com"));
+    }
+
+    @Test
+    void reads_ShouldFallBackToPrimary_WhenReplicaLagsBeyondTolerance() throws Exception {
+        replicaRoutingProperties.setMaxLag(Duration.ofMillis(-1));
+        replicaHealthMonitor.checkReplicas();
+
+        mockMvc.perform(get("/users/{id}", REPLICA_ONLY_USER_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void write_ShouldPinClientToPrimaryForItsNextReads() throws Exception {
+        MvcResult created = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Primary\",\"email\":\"primary@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists("primary-until"))
+                .andReturn();
+        Cookie pin = created.getResponse().getCookie("primary-until");
+        Number id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+
+        mockMvc.perform(get("/users/{id}", id.longValue()).cookie(pin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("primary@example.com"));
+        mockMvc.perform(get("/users/{id}", id.longValue()))
+                .andExpect(status().isNotFound());
+    }
+}
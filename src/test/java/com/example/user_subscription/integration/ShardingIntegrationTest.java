@@ -0,0 +1,192 @@
+package com.example.user_subscription.integration;
+
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.ServicePopularityDto;
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.dto.UserPageDto;
+import com.example.user_subscription.exception.exceptions.user.UserAlreadyExistsException;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import com.example.user_subscription.service.SubscriptionService;
+import com.example.user_subscription.service.UserService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three shards: the shared container plus two of its own. Rows are checked directly on
+ * each container, so the assertions see where data actually landed.
+ */
+@SpringBootTest(properties = {
+        "user.cache.enabled=false",
+        "subscription.events.enabled=false",
+        "datasource.shards.enabled=true"
+})
+class ShardingIntegrationTest extends AbstractPostgresIntegrationTest {
+    private static final PostgreSQLContainer<?> SHARD_1 = new PostgreSQLContainer<>("postgres:16-alpine");
+    private static final PostgreSQLContainer<?> SHARD_2 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private SubscriptionPopularityService subscriptionPopularityService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private List<JdbcTemplate> shards;
+
+    @BeforeAll
+    static void startShards() {
+        SHARD_1.start();
+        SHARD_2.start();
+    }
+
+    @DynamicPropertySource
+    static void shardProperties(DynamicPropertyRegistry registry) {
+        List<PostgreSQLContainer<?>> containers = List.of(POSTGRES, SHARD_1, SHARD_2);
+        for (int i = 0; i < containers.size(); i++) {
+            PostgreSQLContainer<?> container = containers.get(i);
+            String name = "shard-" + i;
+            registry.add("datasource.shards.nodes[" + i + "].name", () -> name);
+            registry.add("datasource.shards.nodes[" + i + "].url", container::getJdbcUrl);
+            registry.add("datasource.shards.nodes[" + i + "].username", container::getUsername);
+            registry.add("datasource.shards.nodes[" + i + "].password", container::getPassword);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        shards = Stream.of(POSTGRES, SHARD_1, SHARD_2)
+                .map(container -> new JdbcTemplate(new DriverManagerDataSource(
+                        container.getJdbcUrl(), container.getUsername(), container.getPassword())))
+                .toList();
+        subscriptionPopularityService.reconcile();
+        for (JdbcTemplate shard : shards) {
+            shard.update("DELETE FROM subscriptions");
+            shard.update("DELETE FROM users");
+            shard.update("DELETE FROM service_popularity");
+        }
+        subscriptionPopularityService.reconcile();
+    }
+
+    @Test
+    void migrations_ShouldRunOnEveryShard() {
+        for (JdbcTemplate shard : shards) {
+            assertEquals(Boolean.TRUE, shard.queryForObject(
+                    "SELECT to_regclass('subscription_keys') IS NOT NULL", Boolean.class));
+        }
+    }
+
+    @Test
+    void users_ShouldLiveOnTheShardTheirIdRoutesTo() {
+        List<Long> ids = createUsers(30);
+
+        Set<Integer> used = new HashSet<>();
+        for (Long id : ids) {
+            int shard = shardRouter.shardFor(id);
+            used.add(shard);
+            for (int i = 0; i < shards.size(); i++) {
+                assertEquals(i == shard ? 1 : 0, shards.get(i).queryForObject(
+                        "SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, id), "user " + id);
+            }
+            assertEquals(id, userService.getUserById(id).getId());
+        }
+        assertEquals(3, used.size());
+    }
+
+    @Test
+    void subscriptions_ShouldBeWrittenAndReadOnTheirUsersShard() {
+        for (Long userId : createUsers(6)) {
+            SubscriptionDto added = subscriptionService.addSubscription(userId,
+                    new SubscriptionDto(null, "Netflix", null, LocalDate.now().plusDays(30), userId));
+
+            JdbcTemplate home = shards.get(shardRouter.shardFor(userId));
+            assertEquals(shardRouter.shardFor(userId), shardRouter.shardFor(added.getId()),
+                    "subscription ids of different shards must not collide");
+            assertEquals(1, home.queryForObject(
+                    "SELECT COUNT(*) FROM subscriptions WHERE user_id = ?", Integer.class, userId));
+            assertEquals(List.of(added.getId()), subscriptionService.getUserSubscriptions(userId).stream()
+                    .map(SubscriptionDto::getId).toList());
+
+            subscriptionService.deleteSubscription(userId, added.getId());
+            assertEquals(0, home.queryForObject(
+                    "SELECT COUNT(*) FROM subscriptions WHERE user_id = ?", Integer.class, userId));
+        }
+    }
+
+    @Test
+    void getAllUsers_ShouldPageAcrossShardsInIdOrder() {
+        List<Long> ids = createUsers(25);
+
+        List<Long> paged = new ArrayList<>();
+        Long cursor = null;
+        do {
+            UserPageDto page = userService.getAllUsers(cursor, 7);
+            page.getUsers().forEach(user -> paged.add(user.getId()));
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        assertEquals(ids.stream().sorted().toList(), paged);
+    }
+
+    @Test
+    void createUser_ShouldRejectEmailTakenOnAnyShard() {
+        Long id = createUsers(1).get(0);
+        String email = "moved@example.com";
+        userService.updateUser(id, new UserDto(null, null, email));
+
+        assertThrows(UserAlreadyExistsException.class,
+                () -> userService.createUser(new UserDto(null, "Other", email)));
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveUserFromItsShard() {
+        Long id = createUsers(1).get(0);
+
+        userService.deleteUser(id);
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(id));
+    }
+
+    @Test
+    void topPopular_ShouldAddUpTotalsOfAllShards() {
+        shards.get(0).update("INSERT INTO service_popularity VALUES ('Spotify', 7)");
+        shards.get(1).update("INSERT INTO service_popularity VALUES ('Netflix', 5)");
+        shards.get(2).update("INSERT INTO service_popularity VALUES ('Netflix', 4), ('YouTube', 1)");
+        subscriptionPopularityService.reconcile();
+
+        List<ServicePopularityDto> top = subscriptionService.getTopPopularSubscriptions(2);
+
+        assertEquals(List.of(new ServicePopularityDto("Netflix", 9L), new ServicePopularityDto("Spotify", 7L)), top);
+    }
+
+    private List<Long> createUsers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(userService.createUser(new UserDto(null, "User " + i, "user" + i + "@example.com")).getId());
+        }
+        return ids;
+    }
+}
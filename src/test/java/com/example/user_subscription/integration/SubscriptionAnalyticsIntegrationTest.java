@@ -0,0 +1,126 @@
+package com.example.user_subscription.integration;
+
+import com.example.user_subscription.dto.MonthlyChurnDto;
+import com.example.user_subscription.dto.ServiceDailyStatsDto;
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.SubscriptionStatusDto;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.service.SubscriptionAnalyticsService;
+import com.example.user_subscription.service.SubscriptionService;
+import com.example.user_subscription.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The rollups kept up to date from write deltas must match what a rebuild computes from
+ * the subscription tables, including after cancellations and expiry sweeps.
+ */
+@SpringBootTest(properties = {
+        "subscription.events.enabled=false",
+        "subscription.analytics.fold-interval-ms=3600000",
+        "subscription.analytics.backfill-on-startup=false"
+})
+class SubscriptionAnalyticsIntegrationTest extends AbstractPostgresIntegrationTest {
+    private static final String ROLLUPS = """
+            SELECT service_name, day, started, expired, cancelled
+            FROM subscription_daily_stats
+            WHERE started <> 0 OR expired <> 0 OR cancelled <> 0
+            ORDER BY service_name, day
+            """;
+
+    @Autowired
+    private SubscriptionAnalyticsService analyticsService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM subscriptions");
+        jdbcTemplate.update("DELETE FROM subscriptions_history");
+        jdbcTemplate.update("DELETE FROM subscription_stats_deltas");
+        jdbcTemplate.update("DELETE FROM subscription_daily_stats");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void foldedDeltas_ShouldMatchRebuild() {
+        long first = createUser("first@example.com");
+        long second = createUser("second@example.com");
+        SubscriptionDto netflix = subscriptionService.addSubscription(first, subscription("Netflix", today.plusDays(10)));
+        subscriptionService.addSubscription(first, subscription("Spotify", null));
+        subscriptionService.addSubscription(second, subscription("Netflix", today.plusDays(3)));
+        insertSubscription(second, "Spotify", today.minusDays(40), today.minusDays(5));
+        insertSubscription(second, "Kinopoisk", today.plusDays(2), today.plusDays(20));
+        analyticsService.rebuild();
+
+        subscriptionService.deleteSubscription(first, netflix.getId());
+        userService.deleteUser(second);
+        analyticsService.foldDeltas();
+        List<Map<String, Object>> incremental = jdbcTemplate.queryForList(ROLLUPS);
+
+        analyticsService.rebuild();
+
+        assertEquals(jdbcTemplate.queryForList(ROLLUPS), incremental);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM subscription_stats_deltas", Long.class));
+    }
+
+    @Test
+    void queries_ShouldReadActiveExpiredAndCancelledFromRollups() {
+        long userId = createUser("stats@example.com");
+        SubscriptionDto cancelled = subscriptionService.addSubscription(userId, subscription("Netflix", null));
+        subscriptionService.deleteSubscription(userId, cancelled.getId());
+        insertSubscription(userId, "Netflix", today.minusDays(10), today.minusDays(2));
+        subscriptionService.addSubscription(userId, subscription("Spotify", today.plusDays(1)));
+        analyticsService.foldDeltas();
+
+        List<ServiceDailyStatsDto> netflix = analyticsService.getDailyStats("Netflix", today.minusDays(3), today.plusDays(1));
+        assertEquals(List.of(1L, 1L, 0L, 1L, 0L),
+                netflix.stream().map(ServiceDailyStatsDto::getActive).toList());
+
+        assertEquals(List.of(new SubscriptionStatusDto("Netflix", 0, 1, 1), new SubscriptionStatusDto("Spotify", 1, 0, 0)),
+                analyticsService.getStatusCounts(today.plusDays(1), null));
+
+        MonthlyChurnDto month = analyticsService.getMonthlyChurn(
+                YearMonth.from(today.plusMonths(2)), YearMonth.from(today.plusMonths(2)), "Spotify").get(0);
+        assertEquals(0, month.getActiveAtStart());
+        assertNull(month.getChurnRate());
+    }
+
+    private long createUser(String email) {
+        return userService.createUser(new UserDto(null, "Analytics User", email)).getId();
+    }
+
+    private void insertSubscription(long userId, String serviceName, LocalDate startDate, LocalDate endDate) {
+        jdbcTemplate.update("""
+            INSERT INTO subscriptions (id, service_name, start_date, end_date, user_id)
+            VALUES (nextval('subscriptions_seq'), ?, ?, ?, ?)
+            """, serviceName, startDate, endDate, userId);
+        jdbcTemplate.update("""
+            INSERT INTO subscription_stats_deltas (service_name, day, started, expired, cancelled)
+            VALUES (?, ?, 1, 0, 0), (?, ?, 0, 1, 0)
+            """, serviceName, startDate, serviceName, endDate);
+    }
+
+    private static SubscriptionDto subscription(String serviceName, LocalDate endDate) {
+        return new SubscriptionDto(null, serviceName, null, endDate, null);
+    }
+}
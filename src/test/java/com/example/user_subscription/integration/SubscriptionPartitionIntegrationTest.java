@@ -0,0 +1,132 @@
+package com.example.user_subscription.integration;
+
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionConflictException;
+import com.example.user_subscription.repository.SubscriptionPartitionRepository;
+import com.example.user_subscription.service.SubscriptionPartitionService;
+import com.example.user_subscription.service.SubscriptionService;
+import com.example.user_subscription.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "subscription.events.enabled=false")
+class SubscriptionPartitionIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SubscriptionPartitionService partitionService;
+
+    @Autowired
+    private SubscriptionPartitionRepository partitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM subscriptions");
+        jdbcTemplate.update("DELETE FROM users");
+        userId = userService.createUser(new UserDto(null, "Partitioned User", "partitioned@example.com")).getId();
+    }
+
+    @Test
+    void migration_ShouldCreateMonthlyPartitionsAhead() {
+        YearMonth current = YearMonth.now();
+
+        assertTrue(partitionRepository.findMonthlyPartitions()
+                .containsAll(List.of(current, current.plusMonths(1), current.plusMonths(2), current.plusMonths(3))));
+    }
+
+    @Test
+    void serviceKey_ShouldStayUnique_AcrossPartitions() {
+        subscriptionService.addSubscription(userId, new SubscriptionDto(null, "Netflix", null, null, null));
+
+        assertThrows(SubscriptionConflictException.class, () ->
+                subscriptionService.addSubscription(userId, new SubscriptionDto(null, "Netflix", null, null, null)));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("""
+                INSERT INTO subscriptions (id, service_name, start_date, end_date, user_id)
+                VALUES (nextval('subscriptions_seq'), 'Netflix', ?, NULL, ?)
+                """, LocalDate.now().plusMonths(2), userId));
+    }
+
+    @Test
+    void deleteSubscription_ShouldFreeTheServiceKey() {
+        SubscriptionDto netflix = subscriptionService.addSubscription(
+                userId, new SubscriptionDto(null, "Netflix", null, null, null));
+
+        subscriptionService.deleteSubscription(userId, netflix.getId());
+
+        assertNotNull(subscriptionService.addSubscription(
+                userId, new SubscriptionDto(null, "Netflix", null, null, null)).getId());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM subscription_keys WHERE user_id = ?", Long.class, userId));
+    }
+
+    @Test
+    void lookupById_ShouldScanOnlyThePartitionHoldingTheRow() {
+        SubscriptionDto netflix = subscriptionService.addSubscription(
+                userId, new SubscriptionDto(null, "Netflix", null, null, null));
+
+        List<String> plan = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return jdbcTemplate.queryForList("""
+                    EXPLAIN (ANALYZE, COSTS OFF, TIMING OFF, SUMMARY OFF)
+                    DELETE FROM subscriptions
+                    WHERE id = ? AND user_id = ?
+                      AND start_date = (SELECT start_date FROM subscription_keys WHERE subscription_id = ?)
+                    """, String.class, netflix.getId(), userId, netflix.getId());
+        });
+
+        List<String> scanned = plan.stream()
+                .filter(line -> line.contains("Scan") && line.contains(" on subscriptions_"))
+                .filter(line -> !line.contains("never executed"))
+                .toList();
+        assertEquals(1, scanned.size(), String.join("\n", plan));
+        assertTrue(scanned.get(0).contains("subscriptions_p" + YearMonth.now().toString().replace("-", "")),
+                String.join("\n", plan));
+    }
+
+    @Test
+    void dropExpiredPartitions_ShouldDropOnlyEmptyOldPartitions() {
+        YearMonth empty = YearMonth.of(2001, 1);
+        YearMonth occupied = YearMonth.of(2001, 2);
+        transactionTemplate.executeWithoutResult(status -> {
+            partitionRepository.createPartition(empty, Duration.ofSeconds(5));
+            partitionRepository.createPartition(occupied, Duration.ofSeconds(5));
+        });
+        jdbcTemplate.update("""
+                INSERT INTO subscriptions (id, service_name, start_date, end_date, user_id)
+                VALUES (nextval('subscriptions_seq'), 'Legacy', ?, NULL, ?)
+                """, occupied.atDay(15), userId);
+
+        List<YearMonth> dropped = partitionService.dropExpiredPartitions(YearMonth.now());
+
+        assertTrue(dropped.contains(empty));
+        List<YearMonth> partitions = partitionRepository.findMonthlyPartitions();
+        assertFalse(partitions.contains(empty));
+        assertTrue(partitions.contains(occupied));
+    }
+}
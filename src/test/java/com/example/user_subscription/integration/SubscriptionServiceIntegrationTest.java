@@ -1,6 +1,7 @@
 package com.example.user_subscription.integration;
 
 import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionConflictException;
 import com.example.user_subscription.mapper.SubscriptionMapper;
 import com.example.user_subscription.model.Subscription;
 import com.example.user_subscription.model.User;
@@ -25,7 +26,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @SpringBootTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @Transactional
-public class SubscriptionServiceIntegrationTest {
+public class SubscriptionServiceIntegrationTest extends AbstractPostgresIntegrationTest {
 
     @Autowired
     private SubscriptionService subscriptionService;
@@ -79,12 +80,27 @@ public class SubscriptionServiceIntegrationTest {
         subscriptionService.addSubscription(user.getId(),
                 new SubscriptionDto(null, "Netflix", null, endDate, null));
 
-        assertThrows(ConflictException.class, () -> {
+        assertThrows(SubscriptionConflictException.class, () -> {
             subscriptionService.addSubscription(user.getId(),
                     new SubscriptionDto(null, "Netflix", null, endDate, null));
         });
     }
 
+    @Test
+    void subscriptionWrites_ShouldBumpSubscriptionsVersion() {
+        User user = userRepository.saveAndFlush(
+                new User(null, "Test User", "test@example.com", new ArrayList<>())
+        );
+        long initial = subscriptionService.getSubscriptionsVersion(user.getId());
+
+        SubscriptionDto created = subscriptionService.addSubscription(user.getId(),
+                new SubscriptionDto(null, "Netflix", null, LocalDate.now().plusMonths(1), null));
+        assertEquals(initial + 1, subscriptionService.getSubscriptionsVersion(user.getId()));
+
+        subscriptionService.deleteSubscription(user.getId(), created.getId());
+        assertEquals(initial + 2, subscriptionService.getSubscriptionsVersion(user.getId()));
+    }
+
     @AfterEach
     void tearDown() {
         subscriptionRepository.deleteAll();
@@ -0,0 +1,68 @@
+package com.example.user_subscription.integration;
+
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.metrics.SqlStatementCounter;
+import com.example.user_subscription.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deleting a user must cost the same number of statements whether it has a handful of
+ * subscriptions or thousands. Events are off so the outbox id allocation cannot add a
+ * sequence call to one of the runs only.
+ */
+@SpringBootTest(properties = {
+        "user.cache.enabled=false",
+        "subscription.events.enabled=false"
+})
+class UserDeleteStatementCountIntegrationTest extends AbstractPostgresIntegrationTest {
+    private static final long MAX_DELETE_STATEMENTS = 2;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deleteUser_ShouldUseConstantStatementCount_RegardlessOfSubscriptions() {
+        long few = statementsToDelete(createUserWithSubscriptions("few@example.com", 3));
+        long many = statementsToDelete(createUserWithSubscriptions("many@example.com", 5_000));
+
+        assertEquals(few, many);
+        assertTrue(many <= MAX_DELETE_STATEMENTS, "statements: " + many);
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveUserAndSubscriptions() {
+        long userId = createUserWithSubscriptions("gone@example.com", 10);
+
+        userService.deleteUser(userId);
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM subscriptions WHERE user_id = ?", Long.class, userId));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(userId));
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(userId));
+    }
+
+    private long statementsToDelete(long userId) {
+        long before = SqlStatementCounter.current();
+        userService.deleteUser(userId);
+        return SqlStatementCounter.current() - before;
+    }
+
+    private long createUserWithSubscriptions(String email, int subscriptions) {
+        long userId = userService.createUser(new UserDto(null, "Test User", email)).getId();
+        jdbcTemplate.update("""
+            INSERT INTO subscriptions (id, service_name, start_date, end_date, user_id)
+            SELECT nextval('subscriptions_seq'), 'Service ' || n, current_date, current_date + 30, ?
+            FROM generate_series(1, ?) n
+            """, userId, subscriptions);
+        return userId;
+    }
+}
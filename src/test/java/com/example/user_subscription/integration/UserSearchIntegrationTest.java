@@ -0,0 +1,96 @@
+package com.example.user_subscription.integration;
+
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.dto.UserSearchPageDto;
+import com.example.user_subscription.metrics.SqlStatementCounter;
+import com.example.user_subscription.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "subscription.events.enabled=false")
+class UserSearchIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM subscriptions");
+        jdbcTemplate.update("DELETE FROM users");
+        for (String email : List.of("Ann@example.com", "anna@example.com", "annabel@example.com",
+                "an_x@example.com", "anx@example.com", "bob@example.com")) {
+            userService.createUser(new UserDto(null, "User " + email.substring(0, email.indexOf('@')), email));
+        }
+    }
+
+    @Test
+    void searchUsers_ShouldPageThroughAllMatches_InKeyOrder() {
+        List<String> emails = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserSearchPageDto page = userService.searchUsers("ANN", null, cursor, 2);
+            page.getUsers().forEach(user -> emails.add(user.getEmail()));
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        assertEquals(List.of("Ann@example.com", "anna@example.com", "annabel@example.com"), emails);
+    }
+
+    @Test
+    void searchUsers_ShouldMatchWildcardsLiterally() {
+        UserSearchPageDto page = userService.searchUsers("an_", null, null, null);
+
+        assertEquals(List.of("an_x@example.com"), page.getUsers().stream().map(UserDto::getEmail).toList());
+    }
+
+    @Test
+    void searchUsers_ShouldSearchByName() {
+        UserSearchPageDto page = userService.searchUsers(null, "user anna", null, null);
+
+        assertEquals(List.of("anna@example.com", "annabel@example.com"),
+                page.getUsers().stream().map(UserDto::getEmail).toList());
+    }
+
+    @Test
+    void searchUsers_ShouldBeCountedByStatementCounter() {
+        long before = SqlStatementCounter.current();
+
+        userService.searchUsers("ann", null, null, null);
+
+        assertEquals(1, SqlStatementCounter.current() - before);
+    }
+
+    @Test
+    void searchIndex_ShouldServeTheRangeAndOrder() {
+        List<String> plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return jdbcTemplate.queryForList("""
+                EXPLAIN SELECT id FROM users
+                WHERE (lower(email) COLLATE "C", id) > ('ann' COLLATE "C", 0)
+                  AND lower(email) COLLATE "C" < 'ano' COLLATE "C"
+                  AND lower(email) COLLATE "C" LIKE 'ann%'
+                ORDER BY lower(email) COLLATE "C", id
+                LIMIT 21
+                """, String.class);
+        });
+
+        String text = String.join("\n", plan);
+        assertTrue(text.contains("idx_users_email_search"), text);
+        assertFalse(text.contains("Sort"), text);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.user_subscription.metrics;
+
+import com.example.user_subscription.config.SqlInstrumentationProperties;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ServiceMetricsAspectTest {
+    private final SqlStatementCounter counter = new SqlStatementCounter(0.0);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlInstrumentationProperties properties = new SqlInstrumentationProperties();
+    private final UserService target = mock(UserService.class);
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        properties.setStatementBudget(2);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new ServiceMetricsAspect(meterRegistry, properties));
+        userService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void measure_ShouldRecordTimerAndStatementCount() {
+        when(target.getUserById(1L)).thenAnswer(invocation -> {
+            counter.count("select u from users u where u.id = ?");
+            return new UserDto(1L, "John", "john@example.com");
+        });
+
+        userService.getUserById(1L);
+
+        assertEquals(1, meterRegistry.get("service.method").tag("method", "getUserById").timer().count());
+        assertEquals(1.0, meterRegistry.get("service.method.sql.statements")
+                .tag("method", "getUserById").summary().totalAmount());
+    }
+
+    @Test
+    void measure_ShouldFail_WhenBudgetExceededAndFailureEnabled() {
+        properties.setFailOnBudgetExceeded(true);
+        when(target.getUserById(1L)).thenAnswer(invocation -> {
+            for (int i = 0; i < 3; i++) {
+                counter.count("select s from subscriptions s where s.user_id = ?");
+            }
+            return new UserDto(1L, "John", "john@example.com");
+        });
+
+        assertThrows(SqlStatementBudgetExceededException.class, () -> userService.getUserById(1L));
+    }
+
+    @Test
+    void measure_ShouldOnlyWarn_WhenBudgetExceededAndFailureDisabled() {
+        when(target.getUserById(1L)).thenAnswer(invocation -> {
+            for (int i = 0; i < 3; i++) {
+                counter.count("select s from subscriptions s where s.user_id = ?");
+            }
+            return new UserDto(1L, "John", "john@example.com");
+        });
+
+        assertNotNull(userService.getUserById(1L));
+    }
+
+    @Test
+    void measure_ShouldRethrowOriginalException_WhenFailingCallExceedsBudget() {
+        properties.setFailOnBudgetExceeded(true);
+        when(target.getUserById(1L)).thenAnswer(invocation -> {
+            for (int i = 0; i < 3; i++) {
+                counter.count("select s from subscriptions s where s.user_id = ?");
+            }
+            throw new IllegalStateException("boom");
+        });
+
+        assertThrows(IllegalStateException.class, () -> userService.getUserById(1L));
+        assertEquals(1, meterRegistry.get("service.method").tag("exception", "IllegalStateException").timer().count());
+    }
+}
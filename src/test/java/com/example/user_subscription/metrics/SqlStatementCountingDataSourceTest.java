@@ -0,0 +1,64 @@
+package com.example.user_subscription.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SqlStatementCountingDataSourceTest {
+    private final DataSource target = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final SqlStatementCountingDataSource dataSource =
+            new SqlStatementCountingDataSource(target, new SqlStatementCounter(0.0));
+
+    @Test
+    void getConnection_ShouldCountPreparedStatementsOncePerPrepare() throws Exception {
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("insert into subscriptions values (?)")).thenReturn(prepared);
+        long before = SqlStatementCounter.current();
+
+        PreparedStatement statement = dataSource.getConnection().prepareStatement("insert into subscriptions values (?)");
+        statement.addBatch();
+        statement.addBatch();
+        statement.executeBatch();
+
+        assertEquals(1, SqlStatementCounter.current() - before);
+        verify(prepared).executeBatch();
+    }
+
+    @Test
+    void getConnection_ShouldCountEachPlainStatementExecution() throws Exception {
+        Statement plain = mock(Statement.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(plain);
+        long before = SqlStatementCounter.current();
+
+        Connection counted = dataSource.getConnection();
+        Statement statement = counted.createStatement();
+        statement.executeQuery("select 1");
+        statement.execute("select 2");
+        counted.commit();
+
+        assertEquals(2, SqlStatementCounter.current() - before);
+        verify(plain).executeQuery("select 1");
+        verify(connection).commit();
+    }
+
+    @Test
+    void close_ShouldCloseClosableTarget() throws Exception {
+        AutoCloseableDataSource pool = mock(AutoCloseableDataSource.class);
+
+        new SqlStatementCountingDataSource(pool, new SqlStatementCounter(0.0)).close();
+
+        verify(pool).close();
+    }
+
+    private interface AutoCloseableDataSource extends DataSource, AutoCloseable {
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionEventProperties;
+import com.example.user_subscription.config.SubscriptionPopularityProperties;
+import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionConflictException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionForbiddenException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.mapper.SubscriptionMapper;
+import com.example.user_subscription.model.reactive.SubscriptionOwnershipRow;
+import com.example.user_subscription.repository.reactive.ReactiveSubscriptionRepository;
+import com.example.user_subscription.repository.reactive.ReactiveUserRepository;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveSubscriptionServiceImplTest {
+
+    @Mock
+    private ReactiveSubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @Mock
+    private SubscriptionMapper subscriptionMapper;
+
+    @Mock
+    private SubscriptionPopularityService subscriptionPopularityService;
+
+    @Spy
+    private SubscriptionPopularityProperties popularityProperties = new SubscriptionPopularityProperties();
+
+    @Spy
+    private SubscriptionEventProperties eventProperties = new SubscriptionEventProperties();
+
+    @InjectMocks
+    private ReactiveSubscriptionServiceImpl subscriptionService;
+
+    @Test
+    void addSubscription_ShouldCreateSubscription_WhenDataValid() {
+        when(subscriptionRepository.insertIfAbsent(1L, "Netflix", LocalDate.now(), null, true))
+                .thenReturn(Mono.just(7L));
+
+        StepVerifier.create(subscriptionService.addSubscription(1L, new SubscriptionDto(null, "Netflix", null, null, null)))
+                .expectNextMatches(dto -> dto.getId() == 7L && dto.getUserId() == 1L)
+                .verifyComplete();
+
+        verify(subscriptionPopularityService).recordAdded("Netflix");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void addSubscription_ShouldNotRecordEvent_WhenEventsDisabled() {
+        eventProperties.setEnabled(false);
+        when(subscriptionRepository.insertIfAbsent(1L, "Netflix", LocalDate.now(), null, false))
+                .thenReturn(Mono.just(7L));
+
+        StepVerifier.create(subscriptionService.addSubscription(1L, new SubscriptionDto(null, "Netflix", null, null, null)))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void addSubscription_ShouldFailWithConflict_WhenServiceAlreadySubscribed() {
+        when(subscriptionRepository.insertIfAbsent(1L, "Netflix", LocalDate.now(), null, true)).thenReturn(Mono.empty());
+        when(userRepository.existsById(1L)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(subscriptionService.addSubscription(1L, new SubscriptionDto(null, "Netflix", null, null, null)))
+                .expectError(SubscriptionConflictException.class)
+                .verify();
+
+        verifyNoInteractions(subscriptionPopularityService);
+    }
+
+    @Test
+    void addSubscription_ShouldFailWithNotFound_WhenUserMissing() {
+        when(subscriptionRepository.insertIfAbsent(1L, "Netflix", LocalDate.now(), null, true)).thenReturn(Mono.empty());
+        when(userRepository.existsById(1L)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(subscriptionService.addSubscription(1L, new SubscriptionDto(null, "Netflix", null, null, null)))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void deleteSubscription_ShouldRecordRemoval_WhenOwned() {
+        when(subscriptionRepository.deleteByIdAndUserId(5L, 1L, true)).thenReturn(Mono.just("Netflix"));
+
+        StepVerifier.create(subscriptionService.deleteSubscription(1L, 5L)).verifyComplete();
+
+        verify(subscriptionPopularityService).recordRemoved("Netflix");
+        verify(subscriptionRepository, never()).findOwnership(any(), any());
+    }
+
+    @Test
+    void deleteSubscription_ShouldFailWithForbidden_WhenOwnedByAnotherUser() {
+        when(subscriptionRepository.deleteByIdAndUserId(5L, 1L, true)).thenReturn(Mono.empty());
+        when(subscriptionRepository.findOwnership(1L, 5L))
+                .thenReturn(Mono.just(new SubscriptionOwnershipRow(true, 2L)));
+
+        StepVerifier.create(subscriptionService.deleteSubscription(1L, 5L))
+                .expectError(SubscriptionForbiddenException.class)
+                .verify();
+    }
+
+    @Test
+    void getTopPopularSubscriptions_ShouldFail_WhenLimitOutOfRange() {
+        StepVerifier.create(subscriptionService.getTopPopularSubscriptions(0))
+                .expectError(SubscriptionIllegalArgumentException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.SubscriptionEventProperties;
+import com.example.user_subscription.config.UserPaginationProperties;
+import com.example.user_subscription.dto.UserDto;
+import com.example.user_subscription.exception.exceptions.user.UserAlreadyExistsException;
+import com.example.user_subscription.exception.exceptions.user.UserConflictException;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.mapper.UserMapper;
+import com.example.user_subscription.model.reactive.UserRow;
+import com.example.user_subscription.repository.reactive.ReactiveSubscriptionRepository;
+import com.example.user_subscription.repository.reactive.ReactiveUserRepository;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceImplTest {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @Mock
+    private ReactiveSubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private SubscriptionPopularityService subscriptionPopularityService;
+
+    @Spy
+    private UserPaginationProperties paginationProperties = new UserPaginationProperties();
+
+    @Spy
+    private SubscriptionEventProperties eventProperties = new SubscriptionEventProperties();
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @InjectMocks
+    private ReactiveUserServiceImpl userService;
+
+    @BeforeEach
+    void passThroughTransactions() {
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void createUser_ShouldInsert_WhenEmailFree() {
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(Mono.just(false));
+        when(userRepository.insert("John", "john@example.com")).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(userService.createUser(new UserDto(null, "John", "john@example.com")))
+                .expectNext(new UserDto(3L, "John", "john@example.com", 0L))
+                .verifyComplete();
+    }
+
+    @Test
+    void createUser_ShouldFail_WhenEmailTaken() {
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.createUser(new UserDto(null, "John", "john@example.com")))
+                .expectError(UserAlreadyExistsException.class)
+                .verify();
+
+        verify(userRepository, never()).insert(any(), any());
+    }
+
+    @Test
+    void updateUser_ShouldReturnBumpedVersion() {
+        when(userRepository.findById(1L)).thenReturn(Mono.just(new UserRow(1L, "John", "john@example.com", 2L)));
+        when(userRepository.update(1L, "Johnny", "john@example.com")).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(userService.updateUser(1L, new UserDto(null, "Johnny", null)))
+                .expectNext(new UserDto(1L, "Johnny", "john@example.com", 3L))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateUser_ShouldFailWithConflict_WhenNewEmailTaken() {
+        when(userRepository.findById(1L)).thenReturn(Mono.just(new UserRow(1L, "John", "john@example.com", 0L)));
+        when(userRepository.existsByEmail("jane@example.com")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.updateUser(1L, new UserDto(null, null, "jane@example.com")))
+                .expectError(UserConflictException.class)
+                .verify();
+
+        verify(userRepository, never()).update(anyLong(), any(), any());
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveSubscriptionsAndRecordPopularity() {
+        when(subscriptionRepository.deleteAllByUserIdReturningServiceName(1L)).thenReturn(Flux.just("Netflix", "Spotify"));
+        when(userRepository.deleteUser(1L, true)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(userService.deleteUser(1L)).verifyComplete();
+
+        verify(subscriptionPopularityService).recordRemoved(List.of("Netflix", "Spotify"));
+    }
+
+    @Test
+    void deleteUser_ShouldFailWithNotFound_WhenUserMissing() {
+        when(subscriptionRepository.deleteAllByUserIdReturningServiceName(1L)).thenReturn(Flux.empty());
+        when(userRepository.deleteUser(1L, true)).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(userService.deleteUser(1L))
+                .expectError(UserNotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(subscriptionPopularityService);
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        UserRow first = new UserRow(1L, "A", "a@example.com", 0L);
+        UserRow second = new UserRow(2L, "B", "b@example.com", 0L);
+        when(userRepository.findPage(0L, 2)).thenReturn(Flux.just(first, second));
+        when(userMapper.toDto(first)).thenReturn(new UserDto(1L, "A", "a@example.com"));
+        when(userMapper.toDto(second)).thenReturn(new UserDto(2L, "B", "b@example.com"));
+
+        StepVerifier.create(userService.getAllUsers(null, 1))
+                .expectNextMatches(page -> page.getUsers().size() == 1 && page.getNext() == 1L)
+                .verifyComplete();
+    }
+}
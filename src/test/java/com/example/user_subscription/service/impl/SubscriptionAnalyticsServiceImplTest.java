@@ -0,0 +1,132 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.config.SubscriptionAnalyticsProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.ServiceDailyStatsDto;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.repository.SubscriptionAnalyticsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionAnalyticsServiceImplTest {
+
+    @Mock
+    private SubscriptionAnalyticsRepository analyticsRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SubscriptionAnalyticsProperties analyticsProperties;
+
+    private SubscriptionAnalyticsServiceImpl analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsProperties = new SubscriptionAnalyticsProperties();
+        analyticsProperties.setFoldBatchSize(100);
+        analyticsProperties.setMaxBatchesPerRun(3);
+        analyticsProperties.setMaxRangeDays(31);
+        analyticsProperties.setMaxRangeMonths(12);
+        analyticsService = new SubscriptionAnalyticsServiceImpl(
+                analyticsRepository, analyticsProperties, transactionManager, new ShardRouter(new ShardRoutingProperties()));
+    }
+
+    @Test
+    void getDailyStats_ShouldReadRollups() {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+        List<ServiceDailyStatsDto> stats = List.of(new ServiceDailyStatsDto(from, 2, 0, 0, 2));
+        when(analyticsRepository.findDailyStats("Netflix", from, to)).thenReturn(stats);
+
+        assertEquals(stats, analyticsService.getDailyStats("Netflix", from, to));
+    }
+
+    @Test
+    void getDailyStats_ShouldThrow_WhenRangeInvalidOrTooLong() {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+
+        assertThrows(SubscriptionIllegalArgumentException.class,
+                () -> analyticsService.getDailyStats("Netflix", from, from.minusDays(1)));
+        assertThrows(SubscriptionIllegalArgumentException.class,
+                () -> analyticsService.getDailyStats("Netflix", from, from.plusDays(31)));
+        assertThrows(SubscriptionIllegalArgumentException.class,
+                () -> analyticsService.getDailyStats(" ", from, from));
+        verifyNoInteractions(analyticsRepository);
+    }
+
+    @Test
+    void getStatusCounts_ShouldDefaultToToday_AndTreatBlankServiceAsAll() {
+        analyticsService.getStatusCounts(null, " ");
+
+        verify(analyticsRepository).findStatusCounts(LocalDate.now(), null);
+    }
+
+    @Test
+    void getMonthlyChurn_ShouldThrow_WhenRangeTooLong() {
+        assertThrows(SubscriptionIllegalArgumentException.class,
+                () -> analyticsService.getMonthlyChurn(YearMonth.of(2024, 1), YearMonth.of(2025, 1), null));
+
+        analyticsService.getMonthlyChurn(YearMonth.of(2024, 1), YearMonth.of(2024, 12), "Netflix");
+        verify(analyticsRepository).findMonthlyChurn(YearMonth.of(2024, 1), YearMonth.of(2024, 12), "Netflix");
+    }
+
+    @Test
+    void foldDeltas_ShouldStopOnFirstShortBatch() {
+        when(analyticsRepository.fold(100)).thenReturn(100, 40);
+
+        assertEquals(140, analyticsService.foldDeltas());
+        verify(analyticsRepository, times(2)).fold(100);
+    }
+
+    @Test
+    void foldDeltas_ShouldStopAtMaxBatchesPerRun() {
+        when(analyticsRepository.fold(100)).thenReturn(100);
+
+        assertEquals(300, analyticsService.foldDeltas());
+        verify(analyticsRepository, times(3)).fold(100);
+    }
+
+    @Test
+    void foldDeltas_ShouldKeepFoldedCount_WhenBatchFails() {
+        when(analyticsRepository.fold(100))
+                .thenReturn(100)
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertEquals(100, analyticsService.foldDeltas());
+    }
+
+    @Test
+    void backfill_ShouldRebuild_OnlyWhenRollupsEmpty() {
+        when(analyticsRepository.isEmpty()).thenReturn(false, true);
+
+        analyticsService.backfill();
+        verify(analyticsRepository, never()).rebuild();
+
+        analyticsService.backfill();
+        verify(analyticsRepository).rebuild();
+    }
+
+    @Test
+    void backfill_ShouldDoNothing_WhenDisabled() {
+        analyticsProperties.setBackfillOnStartup(false);
+
+        analyticsService.backfill();
+
+        verify(analyticsRepository, never()).isEmpty();
+        verify(analyticsRepository, never()).rebuild();
+    }
+}
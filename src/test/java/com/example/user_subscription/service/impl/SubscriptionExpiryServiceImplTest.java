@@ -0,0 +1,178 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.config.SubscriptionExpiryProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
+import com.example.user_subscription.repository.SubscriptionRepository;
+import com.example.user_subscription.repository.projection.SubscriptionArchivedView;
+import com.example.user_subscription.repository.projection.SubscriptionExpiryKeyView;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionExpiryServiceImplTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private SubscriptionPopularityService subscriptionPopularityService;
+
+    @Mock
+    private SubscriptionEventRecorder subscriptionEventRecorder;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SubscriptionExpiryServiceImpl expiryService;
+
+    @BeforeEach
+    void setUp() {
+        SubscriptionExpiryProperties properties = new SubscriptionExpiryProperties();
+        properties.setBatchSize(2);
+        properties.setMaxBatchesPerSecond(0);
+        expiryService = new SubscriptionExpiryServiceImpl(subscriptionRepository, subscriptionPopularityService,
+                subscriptionEventRecorder, properties, transactionManager, meterRegistry,
+                new ShardRouter(new ShardRoutingProperties()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        expiryService.shutdown();
+    }
+
+    @Test
+    void sweepExpired_ShouldArchiveKeysetBatchesUntilExhausted() {
+        LocalDate expired = TODAY.minusDays(3);
+        when(subscriptionRepository.findExpiredKeys(TODAY, Limit.of(2)))
+                .thenReturn(List.of(key(1L, expired), key(2L, expired)));
+        when(subscriptionRepository.findExpiredKeysAfter(TODAY, expired, 2L, Limit.of(2)))
+                .thenReturn(List.of(key(5L, expired)));
+        when(subscriptionRepository.archiveExpired(List.of(1L, 2L), List.of(started(expired)), TODAY))
+                .thenReturn(List.of(archived(1L, 10L, "Netflix"), archived(2L, 20L, "Spotify")));
+        when(subscriptionRepository.archiveExpired(List.of(5L), List.of(started(expired)), TODAY))
+                .thenReturn(List.of(archived(5L, 10L, "Netflix")));
+
+        long archived = expiryService.sweepExpired(TODAY);
+
+        assertEquals(3, archived);
+        assertEquals(3.0, meterRegistry.counter("subscription.expiry.archived").count());
+        assertEquals(2, meterRegistry.timer("subscription.expiry.batch").count());
+        verify(subscriptionPopularityService).recordRemoved(List.of("Netflix", "Spotify"));
+        verify(subscriptionPopularityService).recordRemoved(List.of("Netflix"));
+        verify(subscriptionEventRecorder).record(SubscriptionEventType.SUBSCRIPTION_REMOVED, 10L, 1L, "Netflix");
+        verify(subscriptionEventRecorder).record(SubscriptionEventType.SUBSCRIPTION_REMOVED, 20L, 2L, "Spotify");
+        verify(subscriptionEventRecorder).record(SubscriptionEventType.SUBSCRIPTION_REMOVED, 10L, 5L, "Netflix");
+    }
+
+    @Test
+    void sweepExpired_ShouldDoNothing_WhenNothingExpired() {
+        when(subscriptionRepository.findExpiredKeys(TODAY, Limit.of(2))).thenReturn(List.of());
+
+        assertEquals(0, expiryService.sweepExpired(TODAY));
+        verify(subscriptionRepository, never()).archiveExpired(any(), any(), any());
+        verifyNoInteractions(subscriptionPopularityService, subscriptionEventRecorder);
+    }
+
+    @Test
+    void sweepExpired_ShouldCountFailedBatchAndContinue() {
+        LocalDate expired = TODAY.minusDays(1);
+        when(subscriptionRepository.findExpiredKeys(TODAY, Limit.of(2)))
+                .thenReturn(List.of(key(1L, expired), key(2L, expired)));
+        when(subscriptionRepository.findExpiredKeysAfter(TODAY, expired, 2L, Limit.of(2)))
+                .thenReturn(List.of(key(3L, expired)));
+        when(subscriptionRepository.archiveExpired(List.of(1L, 2L), List.of(started(expired)), TODAY))
+                .thenThrow(new IllegalStateException("lock timeout"));
+        when(subscriptionRepository.archiveExpired(List.of(3L), List.of(started(expired)), TODAY))
+                .thenReturn(List.of(archived(3L, 10L, "Netflix")));
+
+        assertEquals(1, expiryService.sweepExpired(TODAY));
+        assertEquals(1.0, meterRegistry.counter("subscription.expiry.batches.failed").count());
+    }
+
+    @Test
+    void sweepExpired_ShouldClampSubSecondBatchTimeoutToOneSecond() {
+        SubscriptionExpiryProperties properties = new SubscriptionExpiryProperties();
+        properties.setBatchTimeout(Duration.ofMillis(500));
+        expiryService.shutdown();
+        expiryService = new SubscriptionExpiryServiceImpl(subscriptionRepository, subscriptionPopularityService,
+                subscriptionEventRecorder, properties, transactionManager, meterRegistry,
+                new ShardRouter(new ShardRoutingProperties()));
+        LocalDate expired = TODAY.minusDays(1);
+        when(subscriptionRepository.findExpiredKeys(eq(TODAY), any())).thenReturn(List.of(key(1L, expired)));
+        when(subscriptionRepository.archiveExpired(List.of(1L), List.of(started(expired)), TODAY))
+                .thenReturn(List.of(archived(1L, 10L, "Netflix")));
+
+        expiryService.sweepExpired(TODAY);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(1, definition.getValue().getTimeout());
+    }
+
+    private static LocalDate started(LocalDate endDate) {
+        return endDate.minusMonths(1);
+    }
+
+    private static SubscriptionArchivedView archived(Long id, Long userId, String serviceName) {
+        return new SubscriptionArchivedView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getServiceName() {
+                return serviceName;
+            }
+        };
+    }
+
+    private static SubscriptionExpiryKeyView key(Long id, LocalDate endDate) {
+        return new SubscriptionExpiryKeyView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getStartDate() {
+                return started(endDate);
+            }
+
+            @Override
+            public LocalDate getEndDate() {
+                return endDate;
+            }
+        };
+    }
+}
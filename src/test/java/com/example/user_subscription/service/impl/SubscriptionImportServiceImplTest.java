@@ -0,0 +1,256 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.config.SubscriptionImportProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.dto.SubscriptionImportReportDto;
+import com.example.user_subscription.dto.SubscriptionImportResultDto;
+import com.example.user_subscription.dto.SubscriptionImportStatus;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.model.Subscription;
+import com.example.user_subscription.model.User;
+import com.example.user_subscription.repository.SubscriptionRepository;
+import com.example.user_subscription.repository.UserRepository;
+import com.example.user_subscription.repository.projection.SubscriptionKeyView;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionImportServiceImplTest {
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SubscriptionPopularityService subscriptionPopularityService;
+
+    @Mock
+    private SubscriptionEventRecorder subscriptionEventRecorder;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SubscriptionImportProperties properties = new SubscriptionImportProperties();
+
+    private SubscriptionImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        properties.setChunkSize(2);
+        importService = new SubscriptionImportServiceImpl(subscriptionRepository, userRepository,
+                subscriptionPopularityService, subscriptionEventRecorder, properties, new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(), entityManager, transactionManager,
+                new ShardRouter(new ShardRoutingProperties()));
+    }
+
+    @Test
+    void importCsv_ShouldReportEachRow() {
+        String csv = """
+                userId,serviceName,endDate
+                1,Netflix,2030-01-01
+                2,Spotify,
+                1,Spotify,not-a-date
+                1,Netflix,
+                """;
+        SubscriptionKeyView takenKey = mock(SubscriptionKeyView.class);
+        when(takenKey.getUserId()).thenReturn(1L);
+        when(takenKey.getServiceName()).thenReturn("Netflix");
+
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(new User(1L, "Test User", "test@example.com", null));
+        when(subscriptionRepository.findKeysByUserIdsAndServiceNames(anyCollection(), anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(takenKey));
+        assignIds();
+
+        SubscriptionImportReportDto report = importService.importCsv(null, new StringReader(csv));
+
+        assertEquals(4, report.getTotal());
+        assertEquals(1, report.getCreated());
+        assertEquals(List.of(
+                SubscriptionImportStatus.CREATED,
+                SubscriptionImportStatus.USER_NOT_FOUND,
+                SubscriptionImportStatus.INVALID,
+                SubscriptionImportStatus.DUPLICATE
+        ), report.getResults().stream().map(SubscriptionImportResultDto::getStatus).toList());
+        verify(subscriptionPopularityService).recordAdded("Netflix");
+        verify(subscriptionEventRecorder).record(SubscriptionEventType.SUBSCRIPTION_ADDED, 1L, 1L, "Netflix");
+        verifyNoMoreInteractions(subscriptionEventRecorder);
+        verify(entityManager, times(2)).flush();
+    }
+
+    @Test
+    void importCsv_ShouldParseQuotedFields() {
+        String csv = """
+                serviceName,endDate
+                "Yandex Plus, семейная","2030-01-01"
+                "Okko ""Премиум""\",
+                "Kinopoisk,2030-01-01
+                """;
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(new User(1L, "Test User", "test@example.com", null));
+        assignIds();
+
+        SubscriptionImportReportDto report = importService.importCsv(1L, new StringReader(csv));
+
+        assertEquals(List.of(
+                SubscriptionImportStatus.CREATED,
+                SubscriptionImportStatus.CREATED,
+                SubscriptionImportStatus.INVALID
+        ), report.getResults().stream().map(SubscriptionImportResultDto::getStatus).toList());
+        verify(subscriptionPopularityService).recordAdded("Yandex Plus, семейная");
+        verify(subscriptionPopularityService).recordAdded("Okko \"Премиум\"");
+    }
+
+    @Test
+    void importCsv_ShouldThrowBadRequest_WhenBodyCannotBeRead() {
+        Reader failing = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("connection reset");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThrows(SubscriptionIllegalArgumentException.class, () -> importService.importCsv(null, failing));
+    }
+
+    @Test
+    void importCsv_ShouldReturnAbortedReport_WhenRowLimitExceededAfterSavedChunk() {
+        properties.setMaxRows(3);
+        String csv = """
+                Netflix,
+                Spotify,
+                Kinopoisk,
+                Okko,
+                """;
+        mockUser();
+
+        SubscriptionImportReportDto report = importService.importCsv(1L, new StringReader(csv));
+
+        assertEquals(3, report.getTotal());
+        assertEquals(3, report.getCreated());
+        assertTrue(report.isAborted());
+        assertEquals("Превышено максимальное количество строк: 3", report.getAbortReason());
+    }
+
+    @Test
+    void importCsv_ShouldThrowBadRequest_WhenRowLimitExceededBeforeAnythingSaved() {
+        properties.setMaxRows(1);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(SubscriptionIllegalArgumentException.class,
+                () -> importService.importCsv(1L, new StringReader("Netflix,\nSpotify,\n")));
+        verify(subscriptionRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void importJson_ShouldMarkUnmappableElementsInvalidAndContinue() {
+        String json = """
+                [{"serviceName": "Netflix", "endDate": "not-a-date"}, 42, {"serviceName": "Spotify"}]
+                """;
+        mockUser();
+
+        SubscriptionImportReportDto report = importService.importJson(1L,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of(
+                SubscriptionImportStatus.INVALID,
+                SubscriptionImportStatus.INVALID,
+                SubscriptionImportStatus.CREATED
+        ), report.getResults().stream().map(SubscriptionImportResultDto::getStatus).toList());
+        assertFalse(report.isAborted());
+    }
+
+    @Test
+    void importJson_ShouldReturnAbortedReport_WhenBodyBreaksOffAfterSavedChunk() {
+        String json = """
+                [{"serviceName": "Netflix"}, {"serviceName": "Spotify"}, {"serviceName": "Okko"}, {"serviceName":
+                """;
+        mockUser();
+
+        SubscriptionImportReportDto report = importService.importJson(1L,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, report.getCreated());
+        assertTrue(report.isAborted());
+        assertTrue(report.getAbortReason().startsWith("Некорректный JSON: "));
+    }
+
+    @Test
+    void importJson_ShouldRejectDuplicatesInsideOneChunk() {
+        String json = """
+                [{"serviceName": "Netflix"}, {"serviceName": "Netflix"}]
+                """;
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(new User(1L, "Test User", "test@example.com", null));
+        assignIds();
+
+        SubscriptionImportReportDto report = importService.importJson(1L,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, report.getCreated());
+        assertEquals(SubscriptionImportStatus.DUPLICATE, report.getResults().get(1).getStatus());
+    }
+
+    @Test
+    void importJson_ShouldThrow_WhenUserNotFound() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> importService.importJson(1L,
+                new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8))));
+        verifyNoInteractions(subscriptionRepository);
+    }
+
+    private void mockUser() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(new User(1L, "Test User", "test@example.com", null));
+        assignIds();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assignIds() {
+        AtomicLong ids = new AtomicLong();
+        when(subscriptionRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            Iterable<Subscription> subscriptions = inv.getArgument(0);
+            subscriptions.forEach(subscription -> subscription.setId(ids.incrementAndGet()));
+            return List.copyOf((Collection<Subscription>) subscriptions);
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.config.SubscriptionPartitionProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.repository.SubscriptionPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionPartitionServiceImplTest {
+    private static final YearMonth CURRENT = YearMonth.of(2025, 6);
+    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private SubscriptionPartitionRepository partitionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SubscriptionPartitionServiceImpl partitionService;
+
+    @BeforeEach
+    void setUp() {
+        SubscriptionPartitionProperties properties = new SubscriptionPartitionProperties();
+        properties.setMonthsAhead(2);
+        properties.setRetentionMonths(12);
+        properties.setLockTimeout(LOCK_TIMEOUT);
+        partitionService = new SubscriptionPartitionServiceImpl(partitionRepository, properties, transactionManager,
+                new ShardRouter(new ShardRoutingProperties()));
+    }
+
+    @Test
+    void createFuturePartitions_ShouldCreateOnlyMissingMonths() {
+        when(partitionRepository.findMonthlyPartitions()).thenReturn(List.of(CURRENT, CURRENT.plusMonths(1)));
+
+        List<YearMonth> created = partitionService.createFuturePartitions(CURRENT);
+
+        assertEquals(List.of(CURRENT.plusMonths(2)), created);
+        verify(partitionRepository).createPartition(CURRENT.plusMonths(2), LOCK_TIMEOUT);
+        verify(partitionRepository, never()).createPartition(CURRENT, LOCK_TIMEOUT);
+    }
+
+    @Test
+    void createFuturePartitions_ShouldContinue_WhenOneMonthFails() {
+        when(partitionRepository.findMonthlyPartitions()).thenReturn(List.of());
+        doThrow(new CannotAcquireLockException("lock timeout"))
+                .when(partitionRepository).createPartition(CURRENT, LOCK_TIMEOUT);
+
+        List<YearMonth> created = partitionService.createFuturePartitions(CURRENT);
+
+        assertEquals(List.of(CURRENT.plusMonths(1), CURRENT.plusMonths(2)), created);
+    }
+
+    @Test
+    void dropExpiredPartitions_ShouldDropOnlyEmptyPartitionsPastRetention() {
+        YearMonth emptyOld = CURRENT.minusMonths(14);
+        YearMonth busyOld = CURRENT.minusMonths(13);
+        YearMonth kept = CURRENT.minusMonths(12);
+        when(partitionRepository.findMonthlyPartitions()).thenReturn(List.of(emptyOld, busyOld, kept, CURRENT));
+        when(partitionRepository.isEmpty(emptyOld)).thenReturn(true);
+        when(partitionRepository.isEmpty(busyOld)).thenReturn(false);
+        when(partitionRepository.detachAndDropIfEmpty(emptyOld, LOCK_TIMEOUT)).thenReturn(true);
+
+        List<YearMonth> dropped = partitionService.dropExpiredPartitions(CURRENT);
+
+        assertEquals(List.of(emptyOld), dropped);
+        verify(partitionRepository, never()).isEmpty(kept);
+        verify(partitionRepository, never()).detachAndDropIfEmpty(busyOld, LOCK_TIMEOUT);
+    }
+
+    @Test
+    void dropExpiredPartitions_ShouldRollBack_WhenRowsAppearAfterCheck() {
+        YearMonth old = CURRENT.minusMonths(20);
+        when(partitionRepository.findMonthlyPartitions()).thenReturn(List.of(old));
+        when(partitionRepository.isEmpty(old)).thenReturn(true);
+        when(partitionRepository.detachAndDropIfEmpty(old, LOCK_TIMEOUT)).thenReturn(false);
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        assertTrue(partitionService.dropExpiredPartitions(CURRENT).isEmpty());
+        assertTrue(status.isRollbackOnly());
+    }
+}
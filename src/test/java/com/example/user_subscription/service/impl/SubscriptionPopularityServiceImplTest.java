@@ -0,0 +1,194 @@
+package com.example.user_subscription.service.impl;
+
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.config.SubscriptionPopularityProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.ServicePopularityDto;
+import com.example.user_subscription.model.ServicePopularity;
+import com.example.user_subscription.repository.ServicePopularityRepository;
+import com.example.user_subscription.repository.SubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionPopularityServiceImplTest {
+
+    @Mock
+    private ServicePopularityRepository servicePopularityRepository;
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    private final StubTransactionManager transactionManager = new StubTransactionManager();
+
+    private SubscriptionPopularityServiceImpl popularityService;
+
+    @BeforeEach
+    void setUp() {
+        popularityService = new SubscriptionPopularityServiceImpl(
+                servicePopularityRepository, subscriptionRepository, transactionManager,
+                new ShardRouter(new ShardRoutingProperties()), new SubscriptionPopularityProperties());
+    }
+
+    @Test
+    void getTopPopular_ShouldReturnHighestCountsInDescendingOrder() {
+        record(popularityService, "Netflix", 5);
+        record(popularityService, "Spotify", 3);
+        record(popularityService, "YouTube Premium", 7);
+        record(popularityService, "Kinopoisk", 1);
+
+        List<ServicePopularityDto> result = popularityService.getTopPopular(3);
+
+        assertEquals(List.of(
+                new ServicePopularityDto("YouTube Premium", 7L),
+                new ServicePopularityDto("Netflix", 5L),
+                new ServicePopularityDto("Spotify", 3L)
+        ), result);
+        verifyNoInteractions(subscriptionRepository);
+    }
+
+    @Test
+    void getTopPopular_ShouldSkipServicesWithoutSubscriptions() {
+        popularityService.recordAdded("Netflix");
+        popularityService.recordRemoved(List.of("Netflix"));
+        popularityService.recordAdded("Spotify");
+
+        List<ServicePopularityDto> result = popularityService.getTopPopular(3);
+
+        assertEquals(List.of(new ServicePopularityDto("Spotify", 1L)), result);
+    }
+
+    @Test
+    void reconcile_ShouldFlushDeltasAndReloadPersistedCounts() {
+        record(popularityService, "Netflix", 2);
+        when(servicePopularityRepository.findAll())
+                .thenReturn(List.of(new ServicePopularity("Netflix", 42L)));
+
+        popularityService.reconcile();
+
+        verify(servicePopularityRepository).addToCount("Netflix", 2L);
+        assertEquals(List.of(new ServicePopularityDto("Netflix", 42L)), popularityService.getTopPopular(3));
+
+        popularityService.reconcile();
+
+        verify(servicePopularityRepository, times(1)).addToCount(anyString(), anyLong());
+    }
+
+    @Test
+    void getTopPopular_ShouldBreakTiesByServiceName() {
+        record(popularityService, "Spotify", 2);
+        record(popularityService, "Netflix", 2);
+        record(popularityService, "Kinopoisk", 2);
+        record(popularityService, "Okko", 1);
+
+        List<ServicePopularityDto> result = popularityService.getTopPopular(2);
+
+        assertEquals(List.of(
+                new ServicePopularityDto("Kinopoisk", 2L),
+                new ServicePopularityDto("Netflix", 2L)
+        ), result);
+    }
+
+    @Test
+    void initialize_ShouldDropDeltasOfWritesAlreadyCountedBySeed() {
+        popularityService.recordAdded("Netflix");
+        List<TransactionSynchronization> lateWrite = recordInTransaction("Netflix");
+        when(servicePopularityRepository.count()).thenReturn(0L);
+        when(subscriptionRepository.countSubscriptionsByServiceName())
+                .thenReturn(List.of(new ServicePopularityDto("Netflix", 2L)));
+        when(servicePopularityRepository.findAll())
+                .thenReturn(List.of(new ServicePopularity("Netflix", 2L)));
+
+        popularityService.initialize();
+        lateWrite.forEach(TransactionSynchronization::afterCommit);
+
+        verify(servicePopularityRepository).lockForSeeding();
+        assertEquals(List.of(new ServicePopularityDto("Netflix", 2L)), popularityService.getTopPopular(3));
+        popularityService.reconcile();
+        verify(servicePopularityRepository, never()).addToCount(anyString(), anyLong());
+    }
+
+    @Test
+    void initialize_ShouldKeepDeltas_WhenSeedFailsToCommit() {
+        popularityService.recordAdded("Netflix");
+        when(servicePopularityRepository.count()).thenReturn(0L);
+        when(subscriptionRepository.countSubscriptionsByServiceName())
+                .thenReturn(List.of(new ServicePopularityDto("Netflix", 1L)));
+        transactionManager.failCommit = true;
+
+        assertThrows(IllegalStateException.class, () -> popularityService.initialize());
+        transactionManager.failCommit = false;
+        popularityService.recordAdded("Netflix");
+        popularityService.reconcile();
+
+        verify(servicePopularityRepository).addToCount("Netflix", 2L);
+    }
+
+    @Test
+    void initialize_ShouldNotSeed_WhenSeedingDisabled() {
+        SubscriptionPopularityProperties properties = new SubscriptionPopularityProperties();
+        properties.setSeedOnStartup(false);
+        popularityService = new SubscriptionPopularityServiceImpl(servicePopularityRepository, subscriptionRepository,
+                transactionManager, new ShardRouter(new ShardRoutingProperties()), properties);
+
+        popularityService.initialize();
+
+        verify(servicePopularityRepository, never()).lockForSeeding();
+        verifyNoInteractions(subscriptionRepository);
+    }
+
+    /** Records a write whose transaction committed but whose after-commit callback has not run yet. */
+    private List<TransactionSynchronization> recordInTransaction(String serviceName) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            popularityService.recordAdded(serviceName);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void record(SubscriptionPopularityServiceImpl service, String serviceName, int times) {
+        for (int i = 0; i < times; i++) {
+            service.recordAdded(serviceName);
+        }
+    }
+
+    /** Runs transaction synchronizations as a real manager does, without a database. */
+    private static class StubTransactionManager extends AbstractPlatformTransactionManager {
+        private boolean failCommit;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (failCommit) {
+                throw new IllegalStateException("commit failed");
+            }
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -1,16 +1,33 @@
 package com.example.user_subscription.service.impl;
 
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.config.SubscriptionPopularityProperties;
+import com.example.user_subscription.config.UserLookupProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.ServicePopularityDto;
 import com.example.user_subscription.dto.SubscriptionDto;
+import com.example.user_subscription.dto.SubscriptionEventType;
+import com.example.user_subscription.dto.UserSubscriptionsDto;
+import com.example.user_subscription.dto.UserSubscriptionsLookupDto;
+import com.example.user_subscription.dto.VersionedSubscriptionsDto;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionConflictException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionForbiddenException;
+import com.example.user_subscription.exception.exceptions.subscription.SubscriptionIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserIllegalArgumentException;
 import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
-import com.example.user_subscription.mapper.SubscriptionMapper;
-import com.example.user_subscription.model.Subscription;
-import com.example.user_subscription.model.User;
 import com.example.user_subscription.repository.SubscriptionRepository;
 import com.example.user_subscription.repository.UserRepository;
+import com.example.user_subscription.repository.projection.SubscriptionOwnershipView;
+import com.example.user_subscription.repository.projection.SubscriptionVersionedRowView;
+import com.example.user_subscription.service.SubscriptionPopularityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
@@ -32,7 +49,22 @@ class SubscriptionServiceImplTest {
     private SubscriptionRepository subscriptionRepository;
 
     @Mock
-    private SubscriptionMapper subscriptionMapper;
+    private SubscriptionPopularityService subscriptionPopularityService;
+
+    @Mock
+    private SubscriptionEventRecorder subscriptionEventRecorder;
+
+    @Spy
+    private SubscriptionPopularityProperties popularityProperties = new SubscriptionPopularityProperties();
+
+    @Spy
+    private UserLookupProperties lookupProperties = new UserLookupProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new ShardRoutingProperties());
 
     @InjectMocks
     private SubscriptionServiceImpl subscriptionService;
@@ -40,56 +72,133 @@ class SubscriptionServiceImplTest {
     @Test
     void addSubscription_ShouldCreateSubscription_WhenDataValid() {
         Long userId = 1L;
-        User mockUser = new User(userId, "Test User", "test@example.com", null);
         SubscriptionDto requestDto = new SubscriptionDto(
                 null, "Test service name", null, null, null);
 
-        Subscription subscriptionToSave = new Subscription(
-                null, "Test service name", LocalDate.now(), null, mockUser);
-
-        Subscription savedSubscription = new Subscription(
-                1L, "Test service name", LocalDate.now(), null, mockUser);
-
-        SubscriptionDto expectedDto = new SubscriptionDto(
-                1L, "Test service name", LocalDate.now(), null, userId);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(mockUser));
-        when(subscriptionRepository.existsByUserAndServiceName(mockUser, "Test service name"))
-                .thenReturn(false);
-        when(subscriptionMapper.toSubscription(requestDto)).thenReturn(subscriptionToSave);
-        when(subscriptionMapper.toDto(any(Subscription.class))).thenReturn(expectedDto);
-        when(subscriptionRepository.save(subscriptionToSave)).thenReturn(savedSubscription);
+        when(subscriptionRepository.insertIfAbsent(userId, "Test service name", LocalDate.now(), null))
+                .thenReturn(Optional.of(1L));
 
         SubscriptionDto result = subscriptionService.addSubscription(userId, requestDto);
 
         assertNotNull(result);
+        assertEquals(1L, result.getId());
         assertEquals("Test service name", result.getServiceName());
-        verify(subscriptionRepository).save(subscriptionToSave);
+        assertEquals(userId, result.getUserId());
+        verify(subscriptionPopularityService).recordAdded("Test service name");
+        verify(subscriptionEventRecorder).record(SubscriptionEventType.SUBSCRIPTION_ADDED, userId, 1L, "Test service name");
+        verifyNoInteractions(userRepository);
     }
 
     @Test
-    void getUserSubscriptions_ShouldReturnList_WhenUserExists() {
+    void addSubscription_ShouldThrowConflict_WhenServiceAlreadySubscribed() {
         Long userId = 1L;
-        List<Subscription> mockSubscriptions = Arrays.asList(
-                new Subscription(1L, "Netflix", LocalDate.now(), null,
-                        new User(userId, null, null, null)),
-                new Subscription(2L, "Spotify", LocalDate.now(), null,
-                        new User(userId, null, null, null))
-        );
+        SubscriptionDto requestDto = new SubscriptionDto(null, "Netflix", null, null, null);
 
+        when(subscriptionRepository.insertIfAbsent(userId, "Netflix", LocalDate.now(), null))
+                .thenReturn(Optional.empty());
         when(userRepository.existsById(userId)).thenReturn(true);
-        when(subscriptionRepository.findWithUserByUserId(userId)).thenReturn(mockSubscriptions);
-        when(subscriptionMapper.toDto(any(Subscription.class)))
-                .thenAnswer(inv -> {
-                    Subscription s = inv.getArgument(0);
-                    return new SubscriptionDto(s.getId(), s.getServiceName(), null, null, userId);
-                });
+
+        assertThrows(SubscriptionConflictException.class,
+                () -> subscriptionService.addSubscription(userId, requestDto));
+        verifyNoInteractions(subscriptionPopularityService, subscriptionEventRecorder);
+    }
+
+    @Test
+    void addSubscription_ShouldThrowNotFound_WhenUserMissing() {
+        Long userId = 1L;
+        SubscriptionDto requestDto = new SubscriptionDto(null, "Netflix", null, null, null);
+
+        when(subscriptionRepository.insertIfAbsent(userId, "Netflix", LocalDate.now(), null))
+                .thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class,
+                () -> subscriptionService.addSubscription(userId, requestDto));
+    }
+
+    @Test
+    void getUserSubscriptions_ShouldReturnList_WhenUserExists() {
+        Long userId = 1L;
+        when(subscriptionRepository.findVersionedSubscriptionRowsByUserId(userId)).thenReturn(List.of(
+                row(1L, "Netflix", userId, 3L),
+                row(2L, "Spotify", userId, 3L)
+        ));
 
         List<SubscriptionDto> result = subscriptionService.getUserSubscriptions(userId);
 
         assertEquals(2, result.size());
-        verify(userRepository).existsById(userId);
-        verify(subscriptionRepository).findWithUserByUserId(userId);
+        verify(subscriptionRepository).findVersionedSubscriptionRowsByUserId(userId);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getVersionedUserSubscriptions_ShouldTakeVersionFromSameRows() {
+        Long userId = 1L;
+        when(subscriptionRepository.findVersionedSubscriptionRowsByUserId(userId))
+                .thenReturn(List.of(row(1L, "Netflix", userId, 7L)));
+
+        VersionedSubscriptionsDto result = subscriptionService.getVersionedUserSubscriptions(userId);
+
+        assertEquals(7L, result.getVersion());
+        assertEquals(List.of(1L), result.getSubscriptions().stream().map(SubscriptionDto::getId).toList());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUserSubscriptions_ShouldReturnEmptyList_WhenUserHasNoSubscriptions() {
+        Long userId = 1L;
+        when(subscriptionRepository.findVersionedSubscriptionRowsByUserId(userId))
+                .thenReturn(List.of(row(null, null, userId, 0L)));
+
+        assertThat(subscriptionService.getUserSubscriptions(userId)).isEmpty();
+    }
+
+    @Test
+    void getUserSubscriptions_ShouldThrowNotFound_WhenUserMissing() {
+        when(subscriptionRepository.findVersionedSubscriptionRowsByUserId(1L)).thenReturn(List.of());
+
+        assertThrows(UserNotFoundException.class, () -> subscriptionService.getUserSubscriptions(1L));
+    }
+
+    @Test
+    void getSubscriptionsVersion_ShouldReadVersionOnly() {
+        when(userRepository.findSubscriptionsVersionById(1L)).thenReturn(Optional.of(5L));
+
+        assertEquals(5L, subscriptionService.getSubscriptionsVersion(1L));
+        verifyNoInteractions(subscriptionRepository);
+    }
+
+    @Test
+    void getSubscriptionsVersion_ShouldThrowNotFound_WhenUserMissing() {
+        when(userRepository.findSubscriptionsVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> subscriptionService.getSubscriptionsVersion(1L));
+    }
+
+    @Test
+    void getSubscriptionsForUsers_ShouldGroupByUserAndReportMissing() {
+        when(subscriptionRepository.findSubscriptionRowsByUserIds(List.of(3L, 1L, 2L))).thenReturn(List.of(
+                new SubscriptionDto(10L, "Netflix", null, null, 1L),
+                new SubscriptionDto(11L, "Spotify", null, null, 1L),
+                new SubscriptionDto(null, null, null, null, 3L)
+        ));
+
+        UserSubscriptionsLookupDto result = subscriptionService.getSubscriptionsForUsers(List.of(3L, 1L, 2L, 1L));
+
+        assertThat(result.getUsers()).extracting(UserSubscriptionsDto::getUserId).containsExactly(3L, 1L);
+        assertThat(result.getUsers().get(0).getSubscriptions()).isEmpty();
+        assertThat(result.getUsers().get(1).getSubscriptions())
+                .extracting(SubscriptionDto::getServiceName).containsExactly("Netflix", "Spotify");
+        assertThat(result.getMissingIds()).containsExactly(2L);
+    }
+
+    @Test
+    void getSubscriptionsForUsers_ShouldThrow_WhenTooManyIds() {
+        lookupProperties.setMaxIds(2);
+
+        assertThrows(UserIllegalArgumentException.class,
+                () -> subscriptionService.getSubscriptionsForUsers(List.of(1L, 2L, 3L)));
+        verifyNoInteractions(subscriptionRepository);
     }
 
     @Test
@@ -97,21 +206,17 @@ class SubscriptionServiceImplTest {
         Long userId = 1L;
         Long subscriptionId = 10L;
 
-        User user = new User(userId, "Test User", "test@example.com", null);
-        user.setId(userId);
-        Subscription subscription = new Subscription(
-                subscriptionId, "Netflix", null, null, user);
-        subscription.setId(subscriptionId);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(subscriptionRepository.findById(subscriptionId)).thenReturn(Optional.of(subscription));
         when(subscriptionRepository.deleteByIdAndUserId(subscriptionId, userId))
-                .thenReturn(1);
+                .thenReturn(Optional.of("Netflix"));
         subscriptionService.deleteSubscription(userId, subscriptionId);
 
         verify(subscriptionRepository).deleteByIdAndUserId(subscriptionId, userId);
+        verify(subscriptionRepository, never()).findOwnership(any(), any());
+        verify(subscriptionEventRecorder).record(SubscriptionEventType.SUBSCRIPTION_REMOVED, userId, subscriptionId, "Netflix");
+        verify(subscriptionPopularityService).recordRemoved("Netflix");
+        verifyNoInteractions(userRepository);
 
-        assertThat(subscription.getUser().getId()).isEqualTo(userId);
+        assertThat(meterRegistry.summary("subscription.delete.statements").totalAmount()).isEqualTo(1);
     }
 
     @Test
@@ -119,19 +224,26 @@ class SubscriptionServiceImplTest {
         Long userId = 1L;
         Long subscriptionId = 10L;
 
-        User user = new User(userId, "Test User", "test@example.com", null);
-        user.setId(userId);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(subscriptionRepository.findById(subscriptionId)).thenReturn(Optional.empty());
+        when(subscriptionRepository.deleteByIdAndUserId(subscriptionId, userId)).thenReturn(Optional.empty());
+        when(subscriptionRepository.findOwnership(userId, subscriptionId)).thenReturn(ownership(true, null));
 
         assertThrows(UserNotFoundException.class, () ->
                 subscriptionService.deleteSubscription(userId, subscriptionId));
 
-        verify(subscriptionRepository).findById(subscriptionId);
+        verify(subscriptionRepository).findOwnership(userId, subscriptionId);
+        verifyNoInteractions(subscriptionPopularityService);
+    }
 
-        verify(subscriptionRepository, never()).delete(any());
-        verify(subscriptionRepository, never()).deleteByIdAndUserId(any(), any());
+    @Test
+    void deleteSubscription_ShouldThrow_WhenUserNotFound() {
+        Long userId = 1L;
+        Long subscriptionId = 10L;
+
+        when(subscriptionRepository.deleteByIdAndUserId(subscriptionId, userId)).thenReturn(Optional.empty());
+        when(subscriptionRepository.findOwnership(userId, subscriptionId)).thenReturn(ownership(false, 2L));
+
+        assertThrows(UserNotFoundException.class, () ->
+                subscriptionService.deleteSubscription(userId, subscriptionId));
     }
 
     @Test
@@ -140,36 +252,90 @@ class SubscriptionServiceImplTest {
         Long otherUserId = 2L;
         Long subscriptionId = 10L;
 
-        User owner = new User(otherUserId, "Test User", "owner@example.com", null);
-        Subscription subscription = new Subscription(
-                subscriptionId, "Netflix", null, null, owner);
+        when(subscriptionRepository.deleteByIdAndUserId(subscriptionId, userId)).thenReturn(Optional.empty());
+        when(subscriptionRepository.findOwnership(userId, subscriptionId)).thenReturn(ownership(true, otherUserId));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User(
-                userId, "Test User", "test@example.com", null)));
-        when(subscriptionRepository.findById(subscriptionId)).thenReturn(Optional.of(subscription));
-
-        assertThrows(ForbiddenException.class, () ->
+        assertThrows(SubscriptionForbiddenException.class, () ->
                 subscriptionService.deleteSubscription(userId, subscriptionId));
+
+        assertThat(meterRegistry.summary("subscription.delete.statements").totalAmount()).isEqualTo(2);
     }
 
     @Test
-    void getTop3PopularSubscriptions_ShouldReturnSortedResults() {
-        List<Object[]> mockResults = Arrays.asList(
-                new Object[]{"Netflix", 150L},
-                new Object[]{"Spotify", 100L},
-                new Object[]{"YouTube Premium", 75L}
+    void getTopPopularSubscriptions_ShouldUseDefaultLimit_WhenLimitMissing() {
+        List<ServicePopularityDto> mockResults = Arrays.asList(
+                new ServicePopularityDto("Netflix", 150L),
+                new ServicePopularityDto("Spotify", 100L),
+                new ServicePopularityDto("YouTube Premium", 75L)
         );
 
-        when(subscriptionRepository.findTop3PopularSubscriptions())
-                .thenReturn(mockResults);
+        when(subscriptionPopularityService.getTopPopular(3)).thenReturn(mockResults);
 
-        List<Object[]> result = subscriptionService.getTop3PopularSubscriptions();
+        List<ServicePopularityDto> result = subscriptionService.getTopPopularSubscriptions(null);
 
         assertEquals(3, result.size());
-        assertEquals("Netflix", result.get(0)[0]);
-        assertEquals(150L, result.get(0)[1]);
+        assertEquals("Netflix", result.get(0).getServiceName());
+        assertEquals(150L, result.get(0).getCount());
 
-        verify(subscriptionRepository).findTop3PopularSubscriptions();
+        verify(subscriptionPopularityService).getTopPopular(3);
+        verifyNoInteractions(subscriptionRepository);
     }
 
-}
\ No newline at end of file
+    @Test
+    void getTopPopularSubscriptions_ShouldThrow_WhenLimitOutOfRange() {
+        assertThrows(SubscriptionIllegalArgumentException.class,
+                () -> subscriptionService.getTopPopularSubscriptions(0));
+        assertThrows(SubscriptionIllegalArgumentException.class,
+                () -> subscriptionService.getTopPopularSubscriptions(101));
+
+        verifyNoInteractions(subscriptionPopularityService);
+    }
+
+    private static SubscriptionOwnershipView ownership(boolean userExists, Long ownerId) {
+        return new SubscriptionOwnershipView() {
+            @Override
+            public boolean getUserExists() {
+                return userExists;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+        };
+    }
+
+    private static SubscriptionVersionedRowView row(Long id, String serviceName, Long userId, Long version) {
+        return new SubscriptionVersionedRowView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getServiceName() {
+                return serviceName;
+            }
+
+            @Override
+            public LocalDate getStartDate() {
+                return id == null ? null : LocalDate.now();
+            }
+
+            @Override
+            public LocalDate getEndDate() {
+                return null;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Long getSubscriptionsVersion() {
+                return version;
+            }
+        };
+    }
+}
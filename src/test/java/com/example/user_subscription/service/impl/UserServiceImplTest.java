@@ -1,16 +1,36 @@
 package com.example.user_subscription.service.impl;
 
+import com.example.user_subscription.cache.NoOpUserCache;
+import com.example.user_subscription.cache.UserCache;
+import com.example.user_subscription.config.ShardRoutingProperties;
+import com.example.user_subscription.config.UserLookupProperties;
+import com.example.user_subscription.config.UserPaginationProperties;
+import com.example.user_subscription.config.UserSearchProperties;
+import com.example.user_subscription.datasource.ShardRouter;
+import com.example.user_subscription.dto.SubscriptionEventType;
 import com.example.user_subscription.dto.UserDto;
-import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.dto.UserLookupDto;
+import com.example.user_subscription.dto.UserPageDto;
+import com.example.user_subscription.dto.UserSearchPageDto;
+import com.example.user_subscription.event.SubscriptionEventRecorder;
 import com.example.user_subscription.exception.exceptions.user.UserAlreadyExistsException;
+import com.example.user_subscription.exception.exceptions.user.UserIllegalArgumentException;
+import com.example.user_subscription.exception.exceptions.user.UserNotFoundException;
+import com.example.user_subscription.exception.exceptions.user.UserPreconditionFailedException;
 import com.example.user_subscription.mapper.UserMapper;
 import com.example.user_subscription.model.User;
+import com.example.user_subscription.repository.SubscriptionRepository;
 import com.example.user_subscription.repository.UserRepository;
+import com.example.user_subscription.repository.UserSearchRepository;
+import com.example.user_subscription.service.SubscriptionPopularityService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.util.Arrays;
 import java.util.List;
@@ -28,6 +48,33 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private SubscriptionPopularityService subscriptionPopularityService;
+
+    @Mock
+    private SubscriptionEventRecorder subscriptionEventRecorder;
+
+    @Spy
+    private UserCache userCache = new NoOpUserCache();
+
+    @Spy
+    private UserPaginationProperties paginationProperties = new UserPaginationProperties();
+
+    @Spy
+    private UserLookupProperties lookupProperties = new UserLookupProperties();
+
+    @Mock
+    private UserSearchRepository userSearchRepository;
+
+    @Spy
+    private UserSearchProperties searchProperties = new UserSearchProperties();
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new ShardRoutingProperties());
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -62,21 +109,20 @@ class UserServiceImplTest {
     @Test
     void getUserById_ShouldReturnUser_WhenExists() {
         Long userId = 1L;
-        User user = new User(userId, "Test User", "test@example.comr", null);
         UserDto expectedDto = new UserDto(userId, "Test User", "test@example.com");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userMapper.toDto(user)).thenReturn(expectedDto);
+        when(userRepository.findDtoById(userId)).thenReturn(Optional.of(expectedDto));
 
         UserDto result = userService.getUserById(userId);
 
         assertEquals(expectedDto, result);
+        verifyNoInteractions(userMapper);
     }
 
     @Test
     void getUserById_ShouldThrow_WhenNotExists() {
         Long userId = 999L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findDtoById(userId)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.getUserById(userId));
     }
@@ -86,62 +132,186 @@ class UserServiceImplTest {
         Long userId = 1L;
         UserDto updateDto = new UserDto(null, "newUsername", "new@email.com");
         User existingUser = new User(userId, "oldUsername", "old@email.com", null);
-        User savedUser = new User(userId, "newUsername", "new@email.com", null);
         UserDto expectedDto = new UserDto(userId, "newUsername", "new@email.com");
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.existsByEmail("new@email.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
-        when(userMapper.toDto(savedUser)).thenReturn(expectedDto);
+        when(userMapper.toDto(existingUser)).thenReturn(expectedDto);
 
         UserDto result = userService.updateUser(userId, updateDto);
 
         assertNotNull(result);
         assertEquals("newUsername", result.getName());
         assertEquals("new@email.com", result.getEmail());
-        verify(userRepository).save(existingUser);
+        assertEquals("newUsername", existingUser.getName());
+        verify(userRepository).flush();
+        verify(userRepository, never()).save(any());
+        verify(userCache).evict(userId);
+    }
+
+    @Test
+    void updateUser_ShouldFailPrecondition_WhenVersionIsStale() {
+        Long userId = 1L;
+        User existingUser = new User(userId, "oldUsername", "old@email.com", null);
+        existingUser.setVersion(3L);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+        assertThrows(UserPreconditionFailedException.class,
+                () -> userService.updateUser(userId, new UserDto(null, "newUsername", null), 2L));
+
+        assertEquals("oldUsername", existingUser.getName());
+        verify(userRepository, never()).flush();
+    }
+
+    @Test
+    void updateUser_ShouldFailPrecondition_WhenConcurrentUpdateWins() {
+        Long userId = 1L;
+        User existingUser = new User(userId, "oldUsername", "old@email.com", null);
+        existingUser.setVersion(3L);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        doThrow(new ObjectOptimisticLockingFailureException(User.class, userId)).when(userRepository).flush();
+
+        assertThrows(UserPreconditionFailedException.class,
+                () -> userService.updateUser(userId, new UserDto(null, "newUsername", null), 3L));
+        verify(userCache, never()).evict(any());
+    }
+
+    @Test
+    void getUserVersion_ShouldReadVersionOnly_EvenWhenUserIsCached() {
+        Long userId = 1L;
+        when(userRepository.findVersionById(userId)).thenReturn(Optional.of(4L));
+
+        assertEquals(4L, userService.getUserVersion(userId));
+        verify(userRepository, never()).findDtoById(any());
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    void getUserVersion_ShouldThrow_WhenUserMissing() {
+        when(userRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserVersion(99L));
     }
 
     @Test
     void deleteUser_ShouldDelete_WhenUserExists() {
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(userId);
+        when(subscriptionRepository.deleteAllByUserIdReturningServiceName(userId))
+                .thenReturn(List.of("Netflix", "Spotify"));
+        when(userRepository.deleteUser(userId)).thenReturn(1);
 
         userService.deleteUser(userId);
 
-        verify(userRepository).deleteById(userId);
+        verify(userRepository).deleteUser(userId);
+        verify(userRepository, never()).findById(any());
+        verify(userCache).evict(userId);
+        verify(subscriptionPopularityService).recordRemoved(List.of("Netflix", "Spotify"));
+        verify(subscriptionEventRecorder).record(SubscriptionEventType.USER_DELETED, userId, null, null);
     }
 
     @Test
     void deleteUser_ShouldThrow_WhenUserNotFound() {
         Long userId = 999L;
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(subscriptionRepository.deleteAllByUserIdReturningServiceName(userId)).thenReturn(List.of());
+        when(userRepository.deleteUser(userId)).thenReturn(0);
 
         assertThrows(UserNotFoundException.class,
                 () -> userService.deleteUser(userId));
+        verifyNoInteractions(subscriptionEventRecorder);
     }
 
     @Test
-    void getAllUsers_ShouldReturnListOfUsers() {
-
-        List<User> mockUsers = Arrays.asList(
-                new User(1L, "User 1", "user1@test.com", null),
-                new User(2L, "User 2", "user2@test.com", null)
-        );
-
+    void getAllUsers_ShouldReturnPageWithNextCursor_WhenMoreUsersExist() {
         List<UserDto> mockDtos = Arrays.asList(
                 new UserDto(1L, "User 1", "user1@test.com"),
-                new UserDto(2L, "User 2", "user2@test.com")
+                new UserDto(2L, "User 2", "user2@test.com"),
+                new UserDto(3L, "User 3", "user3@test.com")
         );
 
-        when(userRepository.findAll()).thenReturn(mockUsers);
-        when(userMapper.toDtoList(mockUsers)).thenReturn(mockDtos);
+        when(userRepository.findDtoPage(0L, Limit.of(3))).thenReturn(mockDtos);
+
+        UserPageDto result = userService.getAllUsers(null, 2);
 
-        List<UserDto> result = userService.getAllUsers();
+        assertEquals(2, result.getUsers().size());
+        assertEquals("user1@test.com", result.getUsers().get(0).getEmail());
+        assertEquals(2L, result.getNext());
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnLastPageWithoutCursor() {
+        List<UserDto> mockDtos = List.of(new UserDto(5L, "User 5", "user5@test.com"));
+
+        when(userRepository.findDtoPage(4L, Limit.of(101))).thenReturn(mockDtos);
+
+        UserPageDto result = userService.getAllUsers(4L, null);
 
-        assertEquals(2, result.size());
-        assertEquals("user1@test.com", result.get(0).getEmail());
+        assertEquals(mockDtos, result.getUsers());
+        assertNull(result.getNext());
+        verify(userRepository, never()).findAll();
     }
 
-}
\ No newline at end of file
+    @Test
+    void getAllUsers_ShouldThrow_WhenPageSizeTooLarge() {
+        assertThrows(UserIllegalArgumentException.class, () -> userService.getAllUsers(null, 1001));
+        verifyNoInteractions(userRepository);
+    }
+
+
+    @Test
+    void getUsersByIds_ShouldReturnFoundUsersAndMissingIds_InRequestOrder() {
+        lookupProperties.setChunkSize(2);
+        when(userRepository.findDtosByIdIn(List.of(3L, 2L)))
+                .thenReturn(List.of(new UserDto(3L, "Third", "third@example.com")));
+        when(userRepository.findDtosByIdIn(List.of(1L)))
+                .thenReturn(List.of(new UserDto(1L, "First", "first@example.com")));
+
+        UserLookupDto result = userService.getUsersByIds(List.of(3L, 2L, 3L, 1L));
+
+        assertEquals(List.of(3L, 1L), result.getUsers().stream().map(UserDto::getId).toList());
+        assertEquals(List.of(2L), result.getMissingIds());
+    }
+
+    @Test
+    void getUsersByIds_ShouldThrow_WhenTooManyIds() {
+        lookupProperties.setMaxIds(2);
+
+        assertThrows(UserIllegalArgumentException.class, () -> userService.getUsersByIds(List.of(1L, 2L, 3L)));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void searchUsers_ShouldPageByKeyset_WhenMoreMatchesExist() {
+        UserSearchRepository.Row first = new UserSearchRepository.Row(
+                new UserDto(7L, "Alice", "Alice@test.com", 0L), "alice@test.com");
+        UserSearchRepository.Row second = new UserSearchRepository.Row(
+                new UserDto(3L, "Alina", "alina@test.com", 0L), "alina@test.com");
+        UserSearchRepository.Row third = new UserSearchRepository.Row(
+                new UserDto(5L, "Alisa", "alisa@test.com", 0L), "alisa@test.com");
+        when(userSearchRepository.findByPrefix(UserSearchRepository.Field.EMAIL, "ALI", null, 0L, 3))
+                .thenReturn(List.of(first, second, third));
+        when(userSearchRepository.findByPrefix(UserSearchRepository.Field.EMAIL, "ali", "alina@test.com", 3L, 3))
+                .thenReturn(List.of(third));
+
+        UserSearchPageDto page = userService.searchUsers(" ALI ", null, null, 2);
+        UserSearchPageDto nextPage = userService.searchUsers("ali", null, page.getNext(), 2);
+
+        assertEquals(List.of(7L, 3L), page.getUsers().stream().map(UserDto::getId).toList());
+        assertNotNull(page.getNext());
+        assertEquals(List.of(5L), nextPage.getUsers().stream().map(UserDto::getId).toList());
+        assertNull(nextPage.getNext());
+    }
+
+    @Test
+    void searchUsers_ShouldThrow_WhenNotExactlyOneFieldGiven() {
+        assertThrows(UserIllegalArgumentException.class, () -> userService.searchUsers(null, " ", null, null));
+        assertThrows(UserIllegalArgumentException.class, () -> userService.searchUsers("a", "b", null, null));
+        verifyNoInteractions(userSearchRepository);
+    }
+
+    @Test
+    void searchUsers_ShouldThrow_WhenPageSizeOrCursorInvalid() {
+        assertThrows(UserIllegalArgumentException.class, () -> userService.searchUsers("a", null, null, 101));
+        assertThrows(UserIllegalArgumentException.class, () -> userService.searchUsers("a", null, "not a cursor", null));
+        verifyNoInteractions(userSearchRepository);
+    }
+}